@@ -2,8 +2,10 @@ package com.kandclay;
 
 import com.badlogic.gdx.Gdx;
 
+import com.badlogic.gdx.assets.AssetLoaderParameters;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.assets.loaders.SkinLoader;
 import com.badlogic.gdx.graphics.OrthographicCamera;
-import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 
 import com.badlogic.gdx.ApplicationAdapter;
@@ -13,12 +15,21 @@ import com.badlogic.gdx.scenes.scene2d.ui.Label;
 import com.badlogic.gdx.scenes.scene2d.ui.Skin;
 import com.badlogic.gdx.scenes.scene2d.ui.TextButton;
 import com.badlogic.gdx.utils.viewport.FitViewport;
+import com.esotericsoftware.spine.SkeletonData;
 import com.kandclay.handlers.SpriteSheetAnimationHandler;
 import com.kandclay.handlers.SpineAnimationHandler;
+import com.kandclay.handlers.SkeletonUpdateBenchmark;
+import com.kandclay.handlers.SkeletonUpdater;
+import com.kandclay.handlers.SpineLoadBenchmark;
+import com.kandclay.handlers.TextureLoadBenchmark;
 import com.kandclay.managers.AudioManager;
 import com.kandclay.managers.ConfigurationManager;
 import com.kandclay.managers.MyAssetManager;
+import com.kandclay.managers.RenderService;
 import com.kandclay.managers.ScreenManager;
+import com.kandclay.managers.SimulationDriver;
+import com.kandclay.managers.SkeletonDataLoader;
+import com.kandclay.utils.CoinVariant;
 import com.kandclay.utils.Constants;
 import com.kandclay.utils.ScreenType;
 
@@ -27,40 +38,91 @@ public class Main extends ApplicationAdapter {
     private AudioManager audioManager;
     private ConfigurationManager configManager;
     private ScreenManager screenManager;
+    private RenderService renderService;
     private SpriteSheetAnimationHandler spriteSheetAnimationHandler;
     private SpineAnimationHandler spineAnimationHandler;
+    private final SimulationDriver simulationDriver;
+
+    public Main() {
+        this(null);
+    }
+
+    /**
+     * @param simulationDriver runs the animations on another thread, or null to run them while rendering
+     */
+    public Main(SimulationDriver simulationDriver) {
+        this.simulationDriver = simulationDriver;
+    }
 
     @Override
     public void create() {
 
         configManager = ConfigurationManager.getInstance();
+        migratePreferences();
         assetManager = MyAssetManager.getInstance();
         audioManager = AudioManager.getInstance();
-        screenManager = new ScreenManager();
+        renderService = new RenderService();
+        screenManager = new ScreenManager(renderService);
+        screenManager.setThreadedSimulation(simulationDriver != null);
         spriteSheetAnimationHandler = new SpriteSheetAnimationHandler();
         spineAnimationHandler = new SpineAnimationHandler();
 
         loadInitialAssets();
+        if (SpineLoadBenchmark.isEnabled()) {
+            SpineLoadBenchmark.run();
+            // exit() only ends the game after this frame, which must not go on to start it
+            Gdx.app.exit();
+            return;
+        }
+        if (TextureLoadBenchmark.isEnabled()) {
+            TextureLoadBenchmark.run();
+            Gdx.app.exit();
+            return;
+        }
+        if (SkeletonUpdateBenchmark.isEnabled()) {
+            SkeletonUpdateBenchmark.run();
+            Gdx.app.exit();
+            return;
+        }
         screenManager.setScreen(ScreenType.MENU);
+        if (simulationDriver != null) {
+            simulationDriver.start(screenManager);
+        }
+    }
+
+    // Preferences saved by older versions of the game, under the keys they are read from now
+    private void migratePreferences() {
+        // The coin colour used to be saved as "coinColor", true for yellow, before there were coin variants
+        if (configManager.hasPreference("coinColor")) {
+            CoinVariant variant = configManager.getPreference("coinColor", true) ? CoinVariant.YELLOW : CoinVariant.RED;
+            configManager.migratePreference("coinColor", "coinVariant", variant.toString());
+        }
     }
 
+    // Assets used by every screen; the rest come from each screen's manifest, see ScreenType
     private void loadInitialAssets() {
-        assetManager.load(Constants.Skin.JSON, Skin.class);
-        assetManager.load(Constants.MainMenuScreen.ATLAS, TextureAtlas.class);
+        // Load bitmap font, before the skin that uses it
+        assetManager.load(Constants.Font.FONT_FNT, BitmapFont.class);
+
+        SkinLoader.SkinParameter skinParameter = new SkinLoader.SkinParameter();
+        skinParameter.loadedCallback = new AssetLoaderParameters.LoadedCallback() {
+            @Override
+            public void finishedLoading(AssetManager manager, String fileName, Class type) {
+                addFontsToSkin();
+            }
+        };
+        assetManager.load(Constants.Skin.JSON, Skin.class, skinParameter);
         assetManager.load(Constants.TrailDot.ATLAS, TextureAtlas.class);
-        assetManager.load(Constants.MainAnimationScreen.YellowCoin.ATLAS, TextureAtlas.class);
-        assetManager.load(Constants.MainAnimationScreen.RedCoin.ATLAS, TextureAtlas.class);
-        assetManager.load(Constants.Background.PATH, Texture.class);
-        assetManager.load(Constants.MainAnimationScreen.ATLAS, TextureAtlas.class);
-        assetManager.load(Constants.Minimap.PATH, Texture.class);
 
-        // Load bitmap font
-        assetManager.load(Constants.Font.FONT_FNT, BitmapFont.class);
+        // Spine skeletons are parsed by the asset manager's loader thread
+        loadSkeleton(Constants.TrailDot.ATLAS, Constants.TrailDot.SKEL);
 
-        assetManager.finishLoading();
-        addFontsToSkin();
+        // Nothing is waited for here; the loading screen streams these ahead of the first screen's assets
     }
 
+    private void loadSkeleton(String atlasPath, String skeletonPath) {
+        assetManager.load(skeletonPath, SkeletonData.class, new SkeletonDataLoader.SkeletonDataParameter(atlasPath));
+    }
 
     private void addFontsToSkin() {
         Skin skin = assetManager.get(Constants.Skin.JSON, Skin.class);
@@ -93,6 +155,8 @@ public class Main extends ApplicationAdapter {
     @Override
     public void pause() {
         screenManager.pause();
+        // The game may not be resumed, so unsaved preferences go to disk now
+        configManager.flush();
     }
 
     @Override
@@ -102,15 +166,25 @@ public class Main extends ApplicationAdapter {
 
     @Override
     public void dispose() {
+        if (simulationDriver != null) {
+            simulationDriver.stop();
+        }
         if (screenManager != null) {
             screenManager.dispose();
         }
+        if (renderService != null) {
+            renderService.dispose();
+        }
         if (assetManager != null) {
             assetManager.dispose();
         }
         if (audioManager != null) {
             audioManager.dispose();
         }
+        if (configManager != null) {
+            configManager.dispose();
+        }
+        SkeletonUpdater.dispose();
     }
 }
 
@@ -1,75 +1,266 @@
 package com.kandclay.handlers;
 
-import com.badlogic.gdx.Input;
 import com.badlogic.gdx.InputAdapter;
+import com.badlogic.gdx.InputProcessor;
+import com.kandclay.utils.Constants;
 
+/**
+ * Buffers raw input events and hands them to the current screen's processor once per frame, from
+ * {@link #flush()}. A high polling rate mouse reports many moves per frame; consecutive moves (and drags of
+ * the same pointer) are merged into one event at the latest position, so hover tests and the like run once
+ * per frame. The positions a merged move went through are kept as its path, readable with
+ * {@link #getPathLength()} while the move is being dispatched, so a trail can still follow the pointer.
+ * <p>
+ * Events live in a ring of preallocated arrays and nothing is allocated per event. If the ring fills up
+ * before the frame ends, it is flushed early, which keeps the event order.
+ */
 public class InputHandler extends InputAdapter {
+    private static final int KEY_DOWN = 0;
+    private static final int KEY_UP = 1;
+    private static final int KEY_TYPED = 2;
+    private static final int TOUCH_DOWN = 3;
+    private static final int TOUCH_UP = 4;
+    private static final int TOUCH_CANCELLED = 5;
+    private static final int TOUCH_DRAGGED = 6;
+    private static final int MOUSE_MOVED = 7;
+    private static final int SCROLLED = 8;
 
-    @Override
-    public boolean keyDown(int keycode) {
-        // Handle key press event
-        switch (keycode) {
-            case Input.Keys.UP:
-                // Handle up key
+    private InputProcessor processor;
+
+    // The event ring: type, then screenX or keycode or character, screenY, pointer, button, scroll amounts
+    private final int[] types;
+    private final int[] xs;
+    private final int[] ys;
+    private final int[] pointers;
+    private final int[] buttons;
+    private final float[] amountsX;
+    private final float[] amountsY;
+    private final int[] pathStarts;
+    private final int[] pathLengths;
+    private int head;
+    private int size;
+
+    // Positions of the merged moves queued this frame; a move's points are contiguous and end at its position
+    private final int[] pathXs;
+    private final int[] pathYs;
+    private int pathSize;
+
+    // Path of the move being dispatched
+    private int currentPathStart;
+    private int currentPathLength;
+
+    private boolean flushing;
+    private long mergedEvents;
+
+    public InputHandler() {
+        this(Constants.Input.QUEUE_SIZE, Constants.Input.PATH_SIZE);
+    }
+
+    public InputHandler(int queueSize, int pathSize) {
+        types = new int[queueSize];
+        xs = new int[queueSize];
+        ys = new int[queueSize];
+        pointers = new int[queueSize];
+        buttons = new int[queueSize];
+        amountsX = new float[queueSize];
+        amountsY = new float[queueSize];
+        pathStarts = new int[queueSize];
+        pathLengths = new int[queueSize];
+        pathXs = new int[pathSize];
+        pathYs = new int[pathSize];
+    }
+
+    /**
+     * Sets where the events go from now on. Events already queued go to the new processor too.
+     */
+    public void setProcessor(InputProcessor processor) {
+        this.processor = processor;
+    }
+
+    public InputProcessor getProcessor() {
+        return processor;
+    }
+
+    /**
+     * Dispatches every queued event, in order, to the processor. Called once per frame before the screen
+     * renders.
+     */
+    public void flush() {
+        if (flushing) {
+            return;
+        }
+        flushing = true;
+        try {
+            while (size > 0) {
+                int i = head;
+                head = (head + 1) % types.length;
+                size--;
+                dispatch(i);
+            }
+        } finally {
+            head = 0;
+            size = 0;
+            pathSize = 0;
+            currentPathLength = 0;
+            flushing = false;
+        }
+    }
+
+    /**
+     * The number of positions the move being dispatched went through since the last frame, the last one
+     * being the position of the event itself. Zero outside of a move.
+     */
+    public int getPathLength() {
+        return currentPathLength;
+    }
+
+    public int getPathX(int index) {
+        return pathXs[currentPathStart + index];
+    }
+
+    public int getPathY(int index) {
+        return pathYs[currentPathStart + index];
+    }
+
+    // Events folded into an earlier one so far, for profiling
+    public long getMergedEvents() {
+        return mergedEvents;
+    }
+
+    private void dispatch(int i) {
+        if (processor == null) {
+            return;
+        }
+        switch (types[i]) {
+            case KEY_DOWN:
+                processor.keyDown(xs[i]);
+                break;
+            case KEY_UP:
+                processor.keyUp(xs[i]);
+                break;
+            case KEY_TYPED:
+                processor.keyTyped((char) xs[i]);
                 break;
-            case Input.Keys.DOWN:
-                // Handle down key
+            case TOUCH_DOWN:
+                processor.touchDown(xs[i], ys[i], pointers[i], buttons[i]);
                 break;
-            case Input.Keys.LEFT:
-                // Handle left key
+            case TOUCH_UP:
+                processor.touchUp(xs[i], ys[i], pointers[i], buttons[i]);
                 break;
-            case Input.Keys.RIGHT:
-                // Handle right key
+            case TOUCH_CANCELLED:
+                processor.touchCancelled(xs[i], ys[i], pointers[i], buttons[i]);
                 break;
-            case Input.Keys.ESCAPE:
-                // Handle escape key
+            case TOUCH_DRAGGED:
+            case MOUSE_MOVED:
+                currentPathStart = pathStarts[i];
+                currentPathLength = pathLengths[i];
+                if (types[i] == MOUSE_MOVED) {
+                    processor.mouseMoved(xs[i], ys[i]);
+                } else {
+                    processor.touchDragged(xs[i], ys[i], pointers[i]);
+                }
+                currentPathLength = 0;
                 break;
-            default:
+            case SCROLLED:
+                processor.scrolled(amountsX[i], amountsY[i]);
                 break;
         }
-        return true; // Return true to indicate the event was handled
+    }
+
+    private int enqueue(int type, int x, int y, int pointer, int button) {
+        if (size == types.length) {
+            flush();
+        }
+        int i = (head + size) % types.length;
+        size++;
+        types[i] = type;
+        xs[i] = x;
+        ys[i] = y;
+        pointers[i] = pointer;
+        buttons[i] = button;
+        pathLengths[i] = 0;
+        return i;
+    }
+
+    private void enqueueMove(int type, int x, int y, int pointer) {
+        int last = (head + size - 1) % types.length;
+        if (size > 0 && types[last] == type && pointers[last] == pointer) {
+            xs[last] = x;
+            ys[last] = y;
+            mergedEvents++;
+        } else {
+            last = enqueue(type, x, y, pointer, 0);
+            pathStarts[last] = pathSize;
+        }
+        // Once the path buffer is full, only the event's own position is kept up to date
+        if (pathSize < pathXs.length) {
+            pathXs[pathSize] = x;
+            pathYs[pathSize] = y;
+            pathSize++;
+            pathLengths[last]++;
+        }
+    }
+
+    @Override
+    public boolean keyDown(int keycode) {
+        enqueue(KEY_DOWN, keycode, 0, 0, 0);
+        return true;
     }
 
     @Override
     public boolean keyUp(int keycode) {
-        // Handle key release event
+        enqueue(KEY_UP, keycode, 0, 0, 0);
         return true;
     }
 
     @Override
     public boolean keyTyped(char character) {
-        // Handle character typed event
+        enqueue(KEY_TYPED, character, 0, 0, 0);
         return true;
     }
 
     @Override
     public boolean touchDown(int screenX, int screenY, int pointer, int button) {
-        // Handle touch down event
+        enqueue(TOUCH_DOWN, screenX, screenY, pointer, button);
         return true;
     }
 
     @Override
     public boolean touchUp(int screenX, int screenY, int pointer, int button) {
-        // Handle touch up event
+        enqueue(TOUCH_UP, screenX, screenY, pointer, button);
+        return true;
+    }
+
+    @Override
+    public boolean touchCancelled(int screenX, int screenY, int pointer, int button) {
+        enqueue(TOUCH_CANCELLED, screenX, screenY, pointer, button);
         return true;
     }
 
     @Override
     public boolean touchDragged(int screenX, int screenY, int pointer) {
-        // Handle touch dragged event
+        enqueueMove(TOUCH_DRAGGED, screenX, screenY, pointer);
         return true;
     }
 
     @Override
     public boolean mouseMoved(int screenX, int screenY) {
-        // Handle mouse moved event
+        enqueueMove(MOUSE_MOVED, screenX, screenY, 0);
         return true;
     }
 
     @Override
     public boolean scrolled(float amountX, float amountY) {
-        // Handle scrolling event
+        int last = (head + size - 1) % types.length;
+        if (size > 0 && types[last] == SCROLLED) {
+            amountsX[last] += amountX;
+            amountsY[last] += amountY;
+            mergedEvents++;
+        } else {
+            int i = enqueue(SCROLLED, 0, 0, 0, 0);
+            amountsX[i] = amountX;
+            amountsY[i] = amountY;
+        }
         return true;
     }
 }
-
@@ -0,0 +1,234 @@
+package com.kandclay.handlers;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IdentityMap;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.TimeUtils;
+import com.esotericsoftware.spine.AnimationStateData;
+import com.esotericsoftware.spine.SkeletonData;
+import com.kandclay.managers.MyAssetManager;
+import com.kandclay.utils.AnimationBounds;
+import com.kandclay.utils.Constants;
+
+/**
+ * Keeps parsed {@link SkeletonData} and its {@link AnimationStateData} around so a skeleton file is only
+ * parsed once, no matter how many {@link com.esotericsoftware.spine.Skeleton}s are created from it. Skeletons
+ * already loaded through {@link MyAssetManager} are taken from there instead of being parsed again.
+ * Entries are reference counted; an entry whose count drops to zero stays cached until it is evicted
+ * explicitly with {@link #evict(String, String)}, {@link #evictUnused()} or {@link #clear()}.
+ */
+public class SkeletonDataCache {
+    private static final String TAG = "SkeletonDataCache";
+    private static SkeletonDataCache instance;
+
+    private final MyAssetManager assetManager;
+    // Keyed by skeleton path first and atlas path second, so lookups never build a composite key
+    private final ObjectMap<String, ObjectMap<String, Entry>> entries;
+    private final IdentityMap<SkeletonData, Entry> entriesByData;
+
+    private long hits;
+    private long misses;
+    private long parseTimeNanos;
+
+    private static class Entry {
+        final String atlasPath;
+        final String skeletonPath;
+        final SkeletonData skeletonData;
+        final AnimationStateData stateData;
+        // Measured on first use, since only culled skeletons need it
+        AnimationBounds bounds;
+        int refCount;
+
+        Entry(String atlasPath, String skeletonPath, SkeletonData skeletonData) {
+            this.atlasPath = atlasPath;
+            this.skeletonPath = skeletonPath;
+            this.skeletonData = skeletonData;
+            this.stateData = new AnimationStateData(skeletonData);
+        }
+    }
+
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private SkeletonDataCache() {
+        assetManager = MyAssetManager.getInstance();
+        entries = new ObjectMap<String, ObjectMap<String, Entry>>();
+        entriesByData = new IdentityMap<SkeletonData, Entry>();
+    }
+
+    /**
+     * Thread-safe method to get the singleton instance
+     * @return the singleton instance of SkeletonDataCache
+     */
+    public static synchronized SkeletonDataCache getInstance() {
+        if (instance == null) {
+            instance = new SkeletonDataCache();
+        }
+        return instance;
+    }
+
+    /**
+     * Returns the parsed skeleton data for the given files, parsing it on the first request only.
+     * Every call must be balanced by a {@link #release(SkeletonData)}.
+     */
+    public synchronized SkeletonData acquire(String atlasPath, String skeletonPath) {
+        Entry entry = find(atlasPath, skeletonPath);
+        if (entry != null) {
+            hits++;
+        } else {
+            misses++;
+            entry = new Entry(atlasPath, skeletonPath, parse(atlasPath, skeletonPath));
+            ObjectMap<String, Entry> byAtlas = entries.get(skeletonPath);
+            if (byAtlas == null) {
+                byAtlas = new ObjectMap<String, Entry>();
+                entries.put(skeletonPath, byAtlas);
+            }
+            byAtlas.put(atlasPath, entry);
+            entriesByData.put(entry.skeletonData, entry);
+        }
+        entry.refCount++;
+        return entry.skeletonData;
+    }
+
+    /**
+     * Gives back a reference obtained through {@link #acquire(String, String)}. The data stays cached.
+     */
+    public synchronized void release(SkeletonData skeletonData) {
+        Entry entry = entriesByData.get(skeletonData);
+        if (entry == null) {
+            throw new GdxRuntimeException("Skeleton data is not cached: " + skeletonData.getName());
+        }
+        if (entry.refCount == 0) {
+            throw new GdxRuntimeException("Skeleton data released more often than acquired: " + entry.skeletonPath);
+        }
+        entry.refCount--;
+    }
+
+    /**
+     * Returns the shared mixing data for skeleton data obtained from this cache.
+     */
+    public synchronized AnimationStateData getAnimationStateData(SkeletonData skeletonData) {
+        Entry entry = entriesByData.get(skeletonData);
+        if (entry == null) {
+            throw new GdxRuntimeException("Skeleton data is not cached: " + skeletonData.getName());
+        }
+        return entry.stateData;
+    }
+
+    /**
+     * Returns the bounds table of skeleton data obtained from this cache, sampling its animations on the
+     * first request.
+     */
+    public synchronized AnimationBounds getAnimationBounds(SkeletonData skeletonData) {
+        Entry entry = entriesByData.get(skeletonData);
+        if (entry == null) {
+            throw new GdxRuntimeException("Skeleton data is not cached: " + skeletonData.getName());
+        }
+        if (entry.bounds == null) {
+            entry.bounds = new AnimationBounds(skeletonData, Constants.Culling.BOUNDS_SAMPLE_RATE);
+        }
+        return entry.bounds;
+    }
+
+    public synchronized int getRefCount(String atlasPath, String skeletonPath) {
+        Entry entry = find(atlasPath, skeletonPath);
+        return entry == null ? 0 : entry.refCount;
+    }
+
+    /**
+     * Drops the entry for the given files if nothing references it anymore.
+     * @return true if the entry was evicted
+     */
+    public synchronized boolean evict(String atlasPath, String skeletonPath) {
+        Entry entry = find(atlasPath, skeletonPath);
+        if (entry == null || entry.refCount > 0) {
+            return false;
+        }
+        remove(entry);
+        return true;
+    }
+
+    /**
+     * Drops every entry that is no longer referenced.
+     * @return the number of evicted entries
+     */
+    public synchronized int evictUnused() {
+        Array<Entry> unused = new Array<Entry>();
+        for (Entry entry : entriesByData.values()) {
+            if (entry.refCount == 0) {
+                unused.add(entry);
+            }
+        }
+        for (Entry entry : unused) {
+            remove(entry);
+        }
+        return unused.size;
+    }
+
+    // Drop every entry, referenced or not
+    public synchronized void clear() {
+        entries.clear();
+        entriesByData.clear();
+    }
+
+    public synchronized int size() {
+        return entriesByData.size;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return the total time spent parsing skeleton files, in nanoseconds
+     */
+    public synchronized long getParseTimeNanos() {
+        return parseTimeNanos;
+    }
+
+    public synchronized void resetStats() {
+        hits = 0;
+        misses = 0;
+        parseTimeNanos = 0;
+    }
+
+    public synchronized void logStats() {
+        Gdx.app.log(TAG, "entries: " + entriesByData.size + ", hits: " + hits + ", misses: " + misses
+            + ", parse time: " + TimeUtils.nanosToMillis(parseTimeNanos) + " ms");
+    }
+
+    private Entry find(String atlasPath, String skeletonPath) {
+        ObjectMap<String, Entry> byAtlas = entries.get(skeletonPath);
+        return byAtlas == null ? null : byAtlas.get(atlasPath);
+    }
+
+    private void remove(Entry entry) {
+        ObjectMap<String, Entry> byAtlas = entries.get(entry.skeletonPath);
+        byAtlas.remove(entry.atlasPath);
+        if (byAtlas.size == 0) {
+            entries.remove(entry.skeletonPath);
+        }
+        entriesByData.remove(entry.skeletonData);
+    }
+
+    private SkeletonData parse(String atlasPath, String skeletonPath) {
+        // Skeletons queued on the asset manager were already parsed off the render thread
+        if (assetManager.isLoaded(skeletonPath, SkeletonData.class)) {
+            return assetManager.get(skeletonPath, SkeletonData.class);
+        }
+        long start = TimeUtils.nanoTime();
+        TextureAtlas atlas = assetManager.get(atlasPath, TextureAtlas.class);
+        SkeletonData skeletonData = SkeletonReader.read(atlas, Gdx.files.internal(skeletonPath));
+        long elapsed = TimeUtils.timeSinceNanos(start);
+        parseTimeNanos += elapsed;
+        Gdx.app.log(TAG, "Parsed " + skeletonPath + " in " + TimeUtils.nanosToMillis(elapsed) + " ms");
+        return skeletonData;
+    }
+}
@@ -0,0 +1,49 @@
+package com.kandclay.handlers;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.esotericsoftware.spine.SkeletonBinary;
+import com.esotericsoftware.spine.SkeletonData;
+import com.esotericsoftware.spine.SkeletonJson;
+
+/**
+ * Reads skeleton files in either Spine format. Binary {@code .skel} files exported at build time are
+ * preferred; when one is missing the {@code .json} file next to it is read instead.
+ */
+public final class SkeletonReader {
+    public static final String BINARY_EXTENSION = "skel";
+    public static final String JSON_EXTENSION = "json";
+
+    private SkeletonReader() {
+    }
+
+    public static SkeletonData read(TextureAtlas atlas, FileHandle file) {
+        return read(atlas, file, 1f);
+    }
+
+    public static SkeletonData read(TextureAtlas atlas, FileHandle file, float scale) {
+        FileHandle resolved = resolve(file);
+        if (isBinary(resolved)) {
+            SkeletonBinary binary = new SkeletonBinary(atlas);
+            binary.setScale(scale);
+            return binary.readSkeletonData(resolved);
+        }
+        SkeletonJson json = new SkeletonJson(atlas);
+        json.setScale(scale);
+        return json.readSkeletonData(resolved);
+    }
+
+    /**
+     * Returns the file that will actually be read: the binary export if it exists, otherwise the JSON file.
+     */
+    public static FileHandle resolve(FileHandle file) {
+        if (isBinary(file) && !file.exists()) {
+            return file.sibling(file.nameWithoutExtension() + "." + JSON_EXTENSION);
+        }
+        return file;
+    }
+
+    public static boolean isBinary(FileHandle file) {
+        return BINARY_EXTENSION.equalsIgnoreCase(file.extension());
+    }
+}
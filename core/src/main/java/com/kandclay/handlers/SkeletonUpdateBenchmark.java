@@ -0,0 +1,79 @@
+package com.kandclay.handlers;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.TimeUtils;
+import com.esotericsoftware.spine.AnimationState;
+import com.esotericsoftware.spine.AnimationStateData;
+import com.esotericsoftware.spine.Skeleton;
+import com.esotericsoftware.spine.SkeletonData;
+import com.kandclay.managers.MyAssetManager;
+import com.kandclay.utils.Constants;
+import com.kandclay.utils.ScreenType;
+
+/**
+ * Measures the time {@link SkeletonUpdater#updateAll} takes per frame for 10, 100 and 1000 coin
+ * skeletons, on the calling thread alone and split across {@link Constants.Simulation#UPDATE_THREADS}
+ * threads. Enable it by starting the game with {@code -Dskeleton.benchmark=true} (see the
+ * {@code lwjgl3:benchmarkSkeletonUpdate} task).
+ */
+public class SkeletonUpdateBenchmark {
+    private static final String TAG = "SkeletonUpdateBenchmark";
+    public static final String PROPERTY = "skeleton.benchmark";
+    private static final int[] COUNTS = {10, 100, 1000};
+    private static final int FRAMES = 600;
+    private static final float DELTA = 1f / 60f;
+
+    public static boolean isEnabled() {
+        return "true".equals(System.getProperty(PROPERTY));
+    }
+
+    public static void run() {
+        MyAssetManager assetManager = MyAssetManager.getInstance();
+        assetManager.loadScreenAssets(ScreenType.MAIN);
+        assetManager.finishLoading();
+        SkeletonData data = assetManager.get(Constants.MainAnimationScreen.Coin.SKEL, SkeletonData.class);
+        AnimationStateData stateData = new AnimationStateData(data);
+        int minBatchSize = SkeletonUpdater.getMinBatchSize();
+
+        Gdx.app.log(TAG, SkeletonUpdater.getThreads() + " threads, minimum batch " + minBatchSize);
+        for (int count : COUNTS) {
+            Array<Skeleton> skeletons = new Array<Skeleton>(count);
+            Array<AnimationState> states = new Array<AnimationState>(count);
+            for (int i = 0; i < count; i++) {
+                Skeleton skeleton = new Skeleton(data);
+                AnimationState state = new AnimationState(stateData);
+                // Spread the coins over the animation so they do not all take the same path
+                state.setAnimation(0, "animation", true).setTrackTime(i * 0.37f);
+                skeletons.add(skeleton);
+                states.add(state);
+            }
+
+            SkeletonUpdater.setMinBatchSize(Integer.MAX_VALUE);
+            long sequential = measure(skeletons, states);
+            // Split even when the count is below the minimum batch, to show what the minimum saves
+            SkeletonUpdater.setMinBatchSize(Math.max(1, count / SkeletonUpdater.getThreads()));
+            long parallel = measure(skeletons, states);
+            SkeletonUpdater.setMinBatchSize(minBatchSize);
+
+            Gdx.app.log(TAG, count + " skeletons: " + format(sequential) + " per frame on one thread, "
+                + format(parallel) + " split, speedup " + (float) sequential / parallel);
+        }
+    }
+
+    // Mean time of one frame's update, after as many untimed frames to warm up the JIT
+    private static long measure(Array<Skeleton> skeletons, Array<AnimationState> states) {
+        for (int i = 0; i < FRAMES; i++) {
+            SkeletonUpdater.updateAll(skeletons, states, DELTA);
+        }
+        long start = TimeUtils.nanoTime();
+        for (int i = 0; i < FRAMES; i++) {
+            SkeletonUpdater.updateAll(skeletons, states, DELTA);
+        }
+        return TimeUtils.timeSinceNanos(start) / FRAMES;
+    }
+
+    private static String format(long nanos) {
+        return nanos / 1000 + " us";
+    }
+}
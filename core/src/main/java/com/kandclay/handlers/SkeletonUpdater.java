@@ -0,0 +1,156 @@
+package com.kandclay.handlers;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.BooleanArray;
+import com.badlogic.gdx.utils.async.AsyncExecutor;
+import com.badlogic.gdx.utils.async.AsyncResult;
+import com.badlogic.gdx.utils.async.AsyncTask;
+import com.esotericsoftware.spine.AnimationState;
+import com.esotericsoftware.spine.Skeleton;
+import com.kandclay.utils.Constants;
+
+/**
+ * Updates, applies and poses many independent skeletons at once. The skeleton and state pairs are split
+ * into contiguous batches that run on a pool of worker threads, the calling thread taking the first batch
+ * itself, and the call returns once every batch is done. Fewer pairs than two minimum batches are updated
+ * on the calling thread alone, since handing them out would cost more than it saves.
+ * <p>
+ * Only the update runs in parallel; the skeletons are drawn afterwards on the render thread as usual. The
+ * pairs must not share a skeleton or a state, and listeners of the states are called on worker threads.
+ */
+public class SkeletonUpdater {
+    private static final Array<Batch> batches = new Array<Batch>();
+    private static final Array<AsyncResult<Void>> results = new Array<AsyncResult<Void>>();
+    private static AsyncExecutor executor;
+    private static int threads = Constants.Simulation.UPDATE_THREADS;
+    private static int minBatchSize = Constants.Simulation.MIN_BATCH_SIZE;
+
+    /**
+     * Advances every state by the given time, applies it to the skeleton at the same index and updates
+     * the skeleton's world transform.
+     */
+    public static void updateAll(Array<Skeleton> skeletons, Array<AnimationState> states, float delta) {
+        updateAll(skeletons, states, delta, null);
+    }
+
+    /**
+     * Like {@link #updateAll(Array, Array, float)}, but only applies and poses the skeletons whose flag is
+     * set, e.g. by a {@link com.kandclay.utils.SkeletonLod}. Every state is still updated.
+     * @param pose a flag per skeleton, or null to pose them all
+     */
+    public static void updateAll(Array<Skeleton> skeletons, Array<AnimationState> states, float delta,
+                                 BooleanArray pose) {
+        updateAll(skeletons, states, delta, pose, 0, skeletons.size);
+    }
+
+    /**
+     * Like {@link #updateAll(Array, Array, float, BooleanArray)}, for the pairs from the start index up to
+     * but not including the end index only.
+     */
+    public static synchronized void updateAll(Array<Skeleton> skeletons, Array<AnimationState> states, float delta,
+                                              BooleanArray pose, int start, int end) {
+        int count = end - start;
+        int batchCount = Math.min(threads, count / minBatchSize);
+        if (batchCount <= 1) {
+            update(skeletons, states, pose, delta, start, end);
+            return;
+        }
+
+        if (executor == null) {
+            executor = new AsyncExecutor(threads, "SkeletonUpdater");
+        }
+        int batchSize = (count + batchCount - 1) / batchCount;
+        for (int i = 1; i < batchCount; i++) {
+            if (batches.size < i) {
+                batches.add(new Batch());
+            }
+            Batch batch = batches.get(i - 1);
+            batch.set(skeletons, states, pose, delta, start + i * batchSize, Math.min(end, start + (i + 1) * batchSize));
+            results.add(executor.submit(batch));
+        }
+        update(skeletons, states, pose, delta, start, start + batchSize);
+        try {
+            for (int i = 0; i < results.size; i++) {
+                results.get(i).get();
+            }
+        } finally {
+            results.clear();
+            for (int i = 0; i < batches.size; i++) {
+                batches.get(i).clear();
+            }
+        }
+    }
+
+    public static synchronized void setMinBatchSize(int size) {
+        minBatchSize = Math.max(1, size);
+    }
+
+    public static synchronized int getMinBatchSize() {
+        return minBatchSize;
+    }
+
+    /**
+     * Changes the number of threads, the calling thread included, a call may use. The pool is recreated
+     * on the next parallel update.
+     */
+    public static synchronized void setThreads(int count) {
+        threads = Math.max(1, count);
+        dispose();
+    }
+
+    public static synchronized int getThreads() {
+        return threads;
+    }
+
+    public static synchronized void dispose() {
+        if (executor != null) {
+            executor.dispose();
+            executor = null;
+        }
+    }
+
+    private static void update(Array<Skeleton> skeletons, Array<AnimationState> states, BooleanArray pose, float delta,
+                               int start, int end) {
+        for (int i = start; i < end; i++) {
+            Skeleton skeleton = skeletons.get(i);
+            AnimationState state = states.get(i);
+            state.update(delta);
+            if (pose != null && !pose.get(i)) {
+                continue;
+            }
+            state.apply(skeleton);
+            skeleton.updateWorldTransform();
+        }
+    }
+
+    private static class Batch implements AsyncTask<Void> {
+        private Array<Skeleton> skeletons;
+        private Array<AnimationState> states;
+        private BooleanArray pose;
+        private float delta;
+        private int start;
+        private int end;
+
+        void set(Array<Skeleton> skeletons, Array<AnimationState> states, BooleanArray pose, float delta, int start, int end) {
+            this.skeletons = skeletons;
+            this.states = states;
+            this.pose = pose;
+            this.delta = delta;
+            this.start = start;
+            this.end = end;
+        }
+
+        // Let go of the caller's arrays between updates
+        void clear() {
+            skeletons = null;
+            states = null;
+            pose = null;
+        }
+
+        @Override
+        public Void call() {
+            update(skeletons, states, pose, delta, start, end);
+            return null;
+        }
+    }
+}
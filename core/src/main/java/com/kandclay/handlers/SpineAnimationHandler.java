@@ -1,21 +1,20 @@
 package com.kandclay.handlers;
 
-import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.esotericsoftware.spine.*;
-import com.kandclay.managers.MyAssetManager;
 
 public class SpineAnimationHandler {
-    private MyAssetManager assetManager;
+    private SkeletonDataCache skeletonDataCache;
 
     public SpineAnimationHandler() {
-        this.assetManager = MyAssetManager.getInstance();
+        this.skeletonDataCache = SkeletonDataCache.getInstance();
     }
 
+    /**
+     * Creates a skeleton from cached skeleton data. Release it with {@link #releaseSkeleton(Skeleton)}
+     * once it is no longer used.
+     */
     public Skeleton createSkeleton(String atlasPath, String skeletonPath) {
-        TextureAtlas atlas = assetManager.get(atlasPath, TextureAtlas.class);
-        SkeletonJson json = new SkeletonJson(atlas);
-        SkeletonData skeletonData = json.readSkeletonData(Gdx.files.internal(skeletonPath));
+        SkeletonData skeletonData = skeletonDataCache.acquire(atlasPath, skeletonPath);
         Skeleton skeleton = new Skeleton(skeletonData);
         if (skeleton.getData().getSkins() != null) {
             skeleton.setSkin(skeleton.getData().getSkins().first().getName());
@@ -24,8 +23,17 @@ public class SpineAnimationHandler {
     }
 
     public AnimationState createAnimationState(Skeleton skeleton) {
-        AnimationStateData stateData = new AnimationStateData(skeleton.getData());
+        AnimationStateData stateData = skeletonDataCache.getAnimationStateData(skeleton.getData());
         return new AnimationState(stateData);
     }
-}
 
+    public void releaseSkeleton(Skeleton skeleton) {
+        if (skeleton != null) {
+            skeletonDataCache.release(skeleton.getData());
+        }
+    }
+
+    public SkeletonDataCache getSkeletonDataCache() {
+        return skeletonDataCache;
+    }
+}
@@ -0,0 +1,86 @@
+package com.kandclay.handlers;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.utils.TimeUtils;
+import com.esotericsoftware.spine.SkeletonBinary;
+import com.esotericsoftware.spine.SkeletonJson;
+import com.kandclay.managers.MyAssetManager;
+import com.kandclay.utils.Constants;
+import com.kandclay.utils.ScreenType;
+
+/**
+ * Compares cold load times of the JSON and binary exports of every skeleton in the game. Each run uses a
+ * fresh reader so nothing parsed by a previous run is reused. Enable it by starting the game with
+ * {@code -Dspine.benchmark=true} (see the {@code lwjgl3:benchmarkSpineLoad} task); atlases must be loaded.
+ */
+public class SpineLoadBenchmark {
+    private static final String TAG = "SpineLoadBenchmark";
+    public static final String PROPERTY = "spine.benchmark";
+    private static final int RUNS = 20;
+
+    private static final String[][] SKELETONS = {
+        {Constants.MainMenuScreen.ATLAS, Constants.MainMenuScreen.JSON, Constants.MainMenuScreen.SKEL},
+        {Constants.MainAnimationScreen.ATLAS, Constants.MainAnimationScreen.JSON, Constants.MainAnimationScreen.SKEL},
+        {Constants.MainAnimationScreen.Coin.ATLAS, Constants.MainAnimationScreen.Coin.JSON, Constants.MainAnimationScreen.Coin.SKEL},
+        {Constants.TrailDot.ATLAS, Constants.TrailDot.JSON, Constants.TrailDot.SKEL},
+    };
+
+    public static boolean isEnabled() {
+        return "true".equals(System.getProperty(PROPERTY));
+    }
+
+    public static void run() {
+        MyAssetManager assetManager = MyAssetManager.getInstance();
+        // The atlases are normally loaded per screen, the benchmark needs all of them
+        for (ScreenType screenType : ScreenType.values()) {
+            assetManager.loadScreenAssets(screenType);
+        }
+        assetManager.finishLoading();
+
+        long totalJson = 0;
+        long totalBinary = 0;
+
+        for (String[] paths : SKELETONS) {
+            TextureAtlas atlas = assetManager.get(paths[0], TextureAtlas.class);
+            FileHandle jsonFile = Gdx.files.internal(paths[1]);
+            FileHandle binaryFile = Gdx.files.internal(paths[2]);
+
+            long json = measure(atlas, jsonFile, false);
+            totalJson += json;
+            if (!binaryFile.exists()) {
+                Gdx.app.log(TAG, jsonFile.name() + ": " + format(json) + " (" + jsonFile.length() + " bytes), no binary export");
+                continue;
+            }
+            long binary = measure(atlas, binaryFile, true);
+            totalBinary += binary;
+            Gdx.app.log(TAG, jsonFile.name() + ": " + format(json) + " (" + jsonFile.length() + " bytes), "
+                + binaryFile.name() + ": " + format(binary) + " (" + binaryFile.length() + " bytes)");
+        }
+
+        Gdx.app.log(TAG, "Total JSON: " + format(totalJson) + ", total binary: " + format(totalBinary));
+    }
+
+    // Mean time of a full cold read, after one untimed read to load the classes involved
+    private static long measure(TextureAtlas atlas, FileHandle file, boolean binary) {
+        read(atlas, file, binary);
+        long start = TimeUtils.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            read(atlas, file, binary);
+        }
+        return TimeUtils.timeSinceNanos(start) / RUNS;
+    }
+
+    private static void read(TextureAtlas atlas, FileHandle file, boolean binary) {
+        if (binary) {
+            new SkeletonBinary(atlas).readSkeletonData(file);
+        } else {
+            new SkeletonJson(atlas).readSkeletonData(file);
+        }
+    }
+
+    private static String format(long nanos) {
+        return (nanos / 1000) / 1000f + " ms";
+    }
+}
@@ -0,0 +1,99 @@
+package com.kandclay.handlers;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.assets.AssetDescriptor;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.glutils.FileTextureData;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.TimeUtils;
+import com.kandclay.managers.PixmapDecoder;
+import com.kandclay.utils.Constants;
+import com.kandclay.utils.ScreenType;
+
+/**
+ * Measures the wall-clock time to decode and upload every image of every screen manifest with 1 to N
+ * decode threads, N being {@link Constants.Loading#DECODE_THREADS}. Uploads run on the render thread as
+ * they do in the game. Enable it by starting the game with {@code -Dtexture.benchmark=true} (see the
+ * {@code lwjgl3:benchmarkTextureLoad} task).
+ */
+public class TextureLoadBenchmark {
+    private static final String TAG = "TextureLoadBenchmark";
+    public static final String PROPERTY = "texture.benchmark";
+    private static final int RUNS = 5;
+
+    public static boolean isEnabled() {
+        return "true".equals(System.getProperty(PROPERTY));
+    }
+
+    public static void run() {
+        Array<FileHandle> images = collectImages();
+        long bytes = 0;
+        for (FileHandle image : images) {
+            bytes += image.length();
+        }
+        Gdx.app.log(TAG, images.size + " images, " + (bytes / 1024) + " KB on disk");
+
+        // One untimed run to load the classes and warm the file cache
+        measure(images, 1);
+        long singleThread = 0;
+        for (int threads = 1; threads <= Constants.Loading.DECODE_THREADS; threads++) {
+            long time = 0;
+            for (int i = 0; i < RUNS; i++) {
+                time += measure(images, threads);
+            }
+            time /= RUNS;
+            if (threads == 1) {
+                singleThread = time;
+            }
+            Gdx.app.log(TAG, threads + " threads: " + format(time) + ", speedup " + (float) singleThread / time);
+        }
+    }
+
+    private static long measure(Array<FileHandle> images, int threads) {
+        long start = TimeUtils.nanoTime();
+        PixmapDecoder decoder = new PixmapDecoder(threads);
+        for (FileHandle image : images) {
+            decoder.decode(image);
+        }
+        for (FileHandle image : images) {
+            Texture texture = new Texture(new FileTextureData(image, decoder.take(image).pixmap, null, false));
+            texture.dispose();
+        }
+        decoder.dispose();
+        return TimeUtils.timeSinceNanos(start);
+    }
+
+    // Every image file referenced by a manifest, directly or as an atlas page
+    private static Array<FileHandle> collectImages() {
+        Array<FileHandle> images = new Array<FileHandle>();
+        for (ScreenType screenType : ScreenType.values()) {
+            for (AssetDescriptor<?> asset : screenType.getAssets()) {
+                FileHandle file = Gdx.files.internal(asset.fileName);
+                if (asset.type == Texture.class) {
+                    addImage(images, file);
+                } else if (asset.type == TextureAtlas.class) {
+                    TextureAtlas.TextureAtlasData atlasData = new TextureAtlas.TextureAtlasData(file, file.parent(), false);
+                    for (TextureAtlas.TextureAtlasData.Page page : atlasData.getPages()) {
+                        addImage(images, page.textureFile);
+                    }
+                }
+            }
+        }
+        return images;
+    }
+
+    private static void addImage(Array<FileHandle> images, FileHandle image) {
+        for (FileHandle other : images) {
+            if (other.path().equals(image.path())) {
+                return;
+            }
+        }
+        images.add(image);
+    }
+
+    private static String format(long nanos) {
+        return (nanos / 1000) / 1000f + " ms";
+    }
+}
@@ -2,15 +2,74 @@ package com.kandclay.managers;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Preferences;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.TimeUtils;
+import com.badlogic.gdx.utils.Timer;
+import com.badlogic.gdx.utils.async.AsyncExecutor;
+import com.badlogic.gdx.utils.async.AsyncResult;
+import com.badlogic.gdx.utils.async.AsyncTask;
 import com.kandclay.utils.Constants;
 
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The game's preferences, kept in memory and written to disk behind the callers. Setting a preference
+ * only changes the in-memory value; the file is written once changes have stopped for
+ * {@link Constants.Configuration#FLUSH_DELAY} seconds, or at the latest {@link Constants.Configuration#MAX_FLUSH_DELAY}
+ * seconds after the first unsaved one, so dragging a slider costs one write instead of one per tick.
+ * Each write hands a copy of every preference to a background thread, which saves it to a backup first
+ * and then over the file, each with a mark that only reads back from a completely written one. A file left
+ * incomplete by a crash or kill mid-write is passed over for its backup on load, so the game comes back to the state of its last
+ * write or the one before. {@link #flush()} writes straight away and waits, for when the game may not come
+ * back: Main calls it on pause, and {@link #dispose()} on exit.
+ */
 public class ConfigurationManager {
+    private static final String TAG = "ConfigurationManager";
     private static ConfigurationManager instance;
+    // Set in the file and its backup when a write has finished, so it is never a preference itself
+    private static final String COMPLETE_KEY = ".complete";
     private Preferences preferences;
+    private final Preferences backup;
+
+    // Every preference as last set, typed as it was set, which is what the getters read
+    private final ObjectMap<String, Object> values = new ObjectMap<String, Object>();
+    private final AsyncExecutor writer = new AsyncExecutor(1, "ConfigurationWriter");
+    private AsyncResult<Void> writing;
+    private final Timer.Task writeTask = new Timer.Task() {
+        @Override
+        public void run() {
+            write();
+        }
+    };
+    // When the oldest unsaved change was made, or -1 when everything is saved
+    private long dirtySince = -1;
+    // Changes that used to be written to disk each, and the writes made for them
+    private int changes;
+    private int writes;
+    // Whether a change is among the unsaved ones, rather than only a migration
+    private boolean changed;
 
     // Private constructor to prevent instantiation
     private ConfigurationManager() {
         preferences = Gdx.app.getPreferences("config");
+        backup = Gdx.app.getPreferences("config-backup");
+        // A file saved before backups has no mark either, and is only passed over for a complete backup
+        Preferences saved = preferences;
+        if (!preferences.contains(COMPLETE_KEY) && backup.contains(COMPLETE_KEY)) {
+            Gdx.app.error(TAG, "Preferences were not completely written, loading their backup");
+            saved = backup;
+        }
+        Map<String, ?> savedValues = saved.get();
+        for (Map.Entry<String, ?> entry : savedValues.entrySet()) {
+            if (!entry.getKey().equals(COMPLETE_KEY)) {
+                values.put(entry.getKey(), parse(entry.getValue()));
+            }
+        }
+        if (saved == backup) {
+            // Writes start with the backup, so the file has to be complete again before the next one
+            save(preferences, savedValues);
+        }
 //        if (!preferences.contains("width")) {
 //            preferences.putInteger("width", Constants.General.WIDTH);
 //            preferences.flush();
@@ -31,56 +90,211 @@ public class ConfigurationManager {
 
     // Method to get a preference value with a default
     public String getPreference(String key, String defaultValue) {
-        return preferences.getString(key, defaultValue);
+        Object value = values.get(key);
+        return value != null ? value.toString() : defaultValue;
     }
 
     public int getPreference(String key, int defaultValue) {
-        return preferences.getInteger(key, defaultValue);
+        Object value = values.get(key);
+        if (value instanceof Number) {
+            return ((Number) value).intValue();
+        }
+        if (value != null) {
+            handlePreferenceError(key, new NumberFormatException("Not a number: " + value));
+        }
+        return defaultValue;
     }
 
     public boolean getPreference(String key, boolean defaultValue) {
-        return preferences.getBoolean(key, defaultValue);
+        Object value = values.get(key);
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        if (value != null) {
+            handlePreferenceError(key, new IllegalArgumentException("Not a boolean: " + value));
+        }
+        return defaultValue;
     }
 
     public float getPreference(String key, float defaultValue) {
-        return preferences.getFloat(key, defaultValue);
+        Object value = values.get(key);
+        if (value instanceof Number) {
+            return ((Number) value).floatValue();
+        }
+        if (value != null) {
+            handlePreferenceError(key, new NumberFormatException("Not a number: " + value));
+        }
+        return defaultValue;
     }
 
     public void setPreference(String key, String value) {
-        preferences.putString(key, value);
-        preferences.flush();  // Ensure changes are saved
+        put(key, value);
     }
 
     public void setPreference(String key, int value) {
-        preferences.putInteger(key, value);
-        preferences.flush();  // Ensure changes are saved
+        put(key, value);
     }
 
     public void setPreference(String key, boolean value) {
-        preferences.putBoolean(key, value);
-        preferences.flush();  // Ensure changes are saved
+        put(key, value);
     }
 
     public void setPreference(String key, float value) {
-        preferences.putFloat(key, value);
-        preferences.flush();  // Ensure changes are saved
+        put(key, value);
+    }
+
+    /**
+     * Replaces a preference saved by an older version of the game with the one it became, keeping the new
+     * one if it is already set. This is saved like a change but not counted as one in {@link #getWritesAvoided()}.
+     */
+    public void migratePreference(String oldKey, String newKey, String value) {
+        if (values.remove(oldKey) == null) {
+            return;
+        }
+        if (!values.containsKey(newKey)) {
+            values.put(newKey, value);
+        }
+        scheduleWrite();
     }
 
     // Method to check if a preference exists
     public boolean hasPreference(String key) {
-        return preferences.contains(key);
+        return values.containsKey(key);
     }
 
     // Method to remove a preference
     public void removePreference(String key) {
-        preferences.remove(key);
-        preferences.flush();  // Ensure changes are saved
+        if (values.remove(key) == null) {
+            return;
+        }
+        countChange();
     }
 
     // Method to clear all preferences
     public void clearPreferences() {
-        preferences.clear();
-        preferences.flush();  // Ensure changes are saved
+        if (values.size == 0) {
+            return;
+        }
+        values.clear();
+        countChange();
+    }
+
+    /**
+     * Writes any unsaved changes now and waits until they are on disk.
+     */
+    public void flush() {
+        write();
+        if (writing != null) {
+            writing.get();
+            writing = null;
+        }
+    }
+
+    // Writes the changes still unsaved and stops the writer; the next getInstance() loads the file again
+    public void dispose() {
+        flush();
+        writer.dispose();
+        Gdx.app.log(TAG, writes + " writes for " + changes + " changes, " + getWritesAvoided() + " writes avoided");
+        synchronized (ConfigurationManager.class) {
+            if (instance == this) {
+                instance = null;
+            }
+        }
+    }
+
+    // How many of the changes so far did not cost a write of their own
+    public int getWritesAvoided() {
+        return changes - writes;
+    }
+
+    private void put(String key, Object value) {
+        if (value.equals(values.get(key))) {
+            return;
+        }
+        values.put(key, value);
+        countChange();
+    }
+
+    private void countChange() {
+        changes++;
+        changed = true;
+        scheduleWrite();
+    }
+
+    /**
+     * The value as it was set, for one read from a file that keeps every value as text, as the desktop one
+     * does. Text is only taken for a boolean or number that would be written back as the same text.
+     */
+    private static Object parse(Object value) {
+        if (!(value instanceof String)) {
+            return value;
+        }
+        String text = (String) value;
+        if (text.equals("true") || text.equals("false")) {
+            return Boolean.valueOf(text);
+        }
+        try {
+            Integer number = Integer.valueOf(text);
+            if (number.toString().equals(text)) {
+                return number;
+            }
+        } catch (NumberFormatException e) {
+            // Not an integer
+        }
+        try {
+            Float number = Float.valueOf(text);
+            if (number.toString().equals(text)) {
+                return number;
+            }
+        } catch (NumberFormatException e) {
+            // Not a number
+        }
+        return text;
+    }
+
+    // Puts the write off until changes stop, but never past the longest delay from the first of them
+    private void scheduleWrite() {
+        long now = TimeUtils.millis();
+        if (dirtySince < 0) {
+            dirtySince = now;
+        }
+        writeTask.cancel();
+        float waited = (now - dirtySince) / 1000f;
+        float delay = Math.min(Constants.Configuration.FLUSH_DELAY, Constants.Configuration.MAX_FLUSH_DELAY - waited);
+        Timer.schedule(writeTask, Math.max(delay, 0));
+    }
+
+    // Hands a copy of every preference to the writer, which is the only thread touching the files
+    private void write() {
+        writeTask.cancel();
+        if (dirtySince < 0) {
+            return;
+        }
+        dirtySince = -1;
+        final HashMap<String, Object> snapshot = new HashMap<String, Object>();
+        for (ObjectMap.Entry<String, Object> entry : values) {
+            snapshot.put(entry.key, entry.value);
+        }
+        if (changed) {
+            changed = false;
+            writes++;
+        }
+        writing = writer.submit(new AsyncTask<Void>() {
+            @Override
+            public Void call() {
+                // While one of the two is being written the other is complete
+                save(backup, snapshot);
+                save(preferences, snapshot);
+                return null;
+            }
+        });
+    }
+
+    private static void save(Preferences target, Map<String, ?> snapshot) {
+        target.clear();
+        target.put(snapshot);
+        target.putBoolean(COMPLETE_KEY, true);
+        target.flush();
     }
 
     // Method to handle errors in preferences management
@@ -1,17 +1,54 @@
 package com.kandclay.managers;
 
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.assets.AssetDescriptor;
+import com.badlogic.gdx.assets.AssetLoaderParameters;
 import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.assets.loaders.resolvers.InternalFileHandleResolver;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.IntSet;
+import com.badlogic.gdx.utils.ObjectIntMap;
+import com.badlogic.gdx.utils.TimeUtils;
+import com.esotericsoftware.spine.SkeletonData;
+import com.kandclay.utils.Constants;
+import com.kandclay.utils.ScreenType;
+
+import java.util.EnumSet;
 
 public class MyAssetManager implements Disposable {
+    private static final String TAG = "MyAssetManager";
     private static MyAssetManager instance;
     private final AssetManager assetManager;
+    private final PixmapDecoder decoder;
+    // How many screens currently hold each manifest asset
+    private final ObjectIntMap<String> screenReferences;
+    private final EnumSet<ScreenType> loadedScreens;
+    private final Array<Texture> textures;
+    private final IntSet textureHandles;
+
+    // Manifest assets waiting to be handed to the asset manager, ordered by priority and then by request
+    private final Array<PendingAsset> pending;
+    // The manifest asset the asset manager is working on, if any
+    private PendingAsset loading;
 
     /**
      * Private constructor to prevent instantiation
      */
     private MyAssetManager() {
-        assetManager = new AssetManager();
+        InternalFileHandleResolver resolver = new InternalFileHandleResolver();
+        assetManager = new AssetManager(resolver);
+        decoder = new PixmapDecoder(Constants.Loading.DECODE_THREADS);
+        assetManager.setLoader(Texture.class, new ParallelTextureLoader(resolver, decoder));
+        assetManager.setLoader(SkeletonData.class, new SkeletonDataLoader(resolver));
+        screenReferences = new ObjectIntMap<String>();
+        loadedScreens = EnumSet.noneOf(ScreenType.class);
+        textures = new Array<Texture>();
+        textureHandles = new IntSet();
+        pending = new Array<PendingAsset>();
     }
 
     /**
@@ -32,6 +69,95 @@ public class MyAssetManager implements Disposable {
         }
     }
 
+    public synchronized <T> void load(String asset, Class<T> type, AssetLoaderParameters<T> parameters) {
+        if (!assetManager.isLoaded(asset)) {
+            assetManager.load(asset, type, parameters);
+        }
+    }
+
+    public synchronized void loadScreenAssets(ScreenType screenType) {
+        loadScreenAssets(screenType, Constants.Loading.PRIORITY_SCREEN);
+    }
+
+    /**
+     * Queues the assets declared by the screen's manifest. Each asset is reference counted across screens,
+     * so assets shared with a screen that is already loaded are not loaded again. Queueing a screen twice
+     * only raises the priority of its assets that have not started loading yet.
+     * @param priority lower values load first, see {@link Constants.Loading}
+     */
+    public synchronized void loadScreenAssets(ScreenType screenType, int priority) {
+        boolean referenced = !loadedScreens.add(screenType);
+        for (AssetDescriptor<?> asset : screenType.getAssets()) {
+            if (!referenced && screenReferences.getAndIncrement(asset.fileName, 0, 1) == 0) {
+                enqueue(new PendingAsset(asset, priority));
+            } else {
+                raisePriority(asset.fileName, priority);
+            }
+        }
+    }
+
+    /**
+     * Releases the screen's manifest and unloads the assets no other loaded screen still references.
+     */
+    public synchronized void unloadScreenAssets(ScreenType screenType) {
+        if (!loadedScreens.remove(screenType)) {
+            return;
+        }
+        int unloaded = 0;
+        for (AssetDescriptor<?> asset : screenType.getAssets()) {
+            int references = screenReferences.getAndIncrement(asset.fileName, 0, -1);
+            if (references <= 1) {
+                screenReferences.remove(asset.fileName, 0);
+                int index = indexOfPending(asset.fileName);
+                if (index != -1) {
+                    discardImages(pending.removeIndex(index));
+                } else if (assetManager.contains(asset.fileName)) {
+                    assetManager.unload(asset.fileName);
+                    unloaded++;
+                }
+            }
+        }
+        if (unloaded > 0) {
+            Gdx.app.log(TAG, "Unloaded " + unloaded + " assets of " + screenType
+                + ", textures now use " + (getTextureMemory() / 1024) + " KB");
+        }
+    }
+
+    // True when nothing is queued or loading, in the foreground or the background
+    public synchronized boolean isIdle() {
+        return pending.size == 0 && assetManager.isFinished();
+    }
+
+    public synchronized boolean isScreenLoaded(ScreenType screenType) {
+        for (AssetDescriptor<?> asset : screenType.getAssets()) {
+            if (!assetManager.isLoaded(asset.fileName)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Estimate of the GPU memory used by the loaded textures. Textures sharing a GL texture are counted once.
+     */
+    public synchronized long getTextureMemory() {
+        assetManager.getAll(Texture.class, textures);
+        long bytes = 0;
+        for (Texture texture : textures) {
+            if (textureHandles.add(texture.getTextureObjectHandle())) {
+                bytes += (long) texture.getWidth() * texture.getHeight()
+                    * SharedTexture.bytesPerPixel(texture.getTextureData().getFormat());
+            }
+        }
+        textures.clear();
+        textureHandles.clear();
+        return bytes;
+    }
+
+    public synchronized boolean isLoaded(String asset, Class<?> type) {
+        return assetManager.isLoaded(asset, type);
+    }
+
     // Get a loaded asset
     public synchronized <T> T get(String asset, Class<T> type) {
         if (assetManager.isLoaded(asset)) {
@@ -41,9 +167,11 @@ public class MyAssetManager implements Disposable {
         }
     }
 
-    // Finish loading all assets
+    // Finish loading all assets, including the ones queued in the background
     public void finishLoading() {
-        assetManager.finishLoading();
+        while (!update(Integer.MAX_VALUE, Integer.MAX_VALUE)) {
+            // update() returns once everything is loaded
+        }
     }
 
     /**
@@ -51,7 +179,35 @@ public class MyAssetManager implements Disposable {
      * @return true if the asset manager is done loading
      */
     public boolean update() {
-        return assetManager.update();
+        return update(0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Loads for up to the given time. Assets are handed to the asset manager one at a time in priority
+     * order, so a screen that is being opened never waits behind assets queued in the background; at
+     * worst it waits for the one asset already being loaded. Assets loaded directly through
+     * {@link #load(String, Class)} always go first.
+     * @param maxPriority assets with a higher priority value are left for later calls
+     * @return true once nothing up to {@code maxPriority} is left to load
+     */
+    public synchronized boolean update(int millis, int maxPriority) {
+        long end = TimeUtils.millis() + millis;
+        while (true) {
+            if (assetManager.update()) {
+                loading = null;
+                if (pending.size == 0 || pending.first().priority > maxPriority) {
+                    return true;
+                }
+                loading = pending.removeIndex(0);
+                assetManager.load(loading.descriptor);
+            } else if (loading != null && loading.priority > maxPriority && !hasPending(maxPriority)) {
+                // Only background work is left, it can finish during later frames
+                return true;
+            }
+            if (TimeUtils.millis() >= end) {
+                return false;
+            }
+        }
     }
 
     /**
@@ -62,9 +218,102 @@ public class MyAssetManager implements Disposable {
         return assetManager.getProgress();
     }
 
+    /**
+     * Fraction of the given screen's assets that are loaded, counting the asset in progress partially.
+     */
+    public synchronized float getProgress(ScreenType screenType) {
+        AssetDescriptor<?>[] assets = screenType.getAssets();
+        if (assets.length == 0) {
+            return 1f;
+        }
+        float loaded = 0;
+        for (AssetDescriptor<?> asset : assets) {
+            if (assetManager.isLoaded(asset.fileName)) {
+                loaded++;
+            } else if (loading != null && loading.descriptor.fileName.equals(asset.fileName)) {
+                loaded += assetManager.getProgress();
+            }
+        }
+        return loaded / assets.length;
+    }
+
+    private boolean hasPending(int maxPriority) {
+        return pending.size > 0 && pending.first().priority <= maxPriority;
+    }
+
+    // Insert after every asset of the same or a more urgent priority, and start decoding its images right away
+    private void enqueue(PendingAsset asset) {
+        if (asset.images == null) {
+            decodeImages(asset);
+        }
+        int index = 0;
+        while (index < pending.size && pending.get(index).priority <= asset.priority) {
+            index++;
+        }
+        pending.insert(index, asset);
+    }
+
+    private void raisePriority(String fileName, int priority) {
+        int index = indexOfPending(fileName);
+        if (index != -1 && pending.get(index).priority > priority) {
+            PendingAsset asset = pending.removeIndex(index);
+            asset.priority = priority;
+            enqueue(asset);
+        }
+    }
+
+    private void decodeImages(PendingAsset asset) {
+        asset.images = new Array<FileHandle>();
+        FileHandle file = assetManager.getFileHandleResolver().resolve(asset.descriptor.fileName);
+        if (asset.descriptor.type == Texture.class) {
+            asset.images.add(file);
+        } else if (asset.descriptor.type == TextureAtlas.class) {
+            TextureAtlas.TextureAtlasData atlasData = new TextureAtlas.TextureAtlasData(file, file.parent(), false);
+            for (TextureAtlas.TextureAtlasData.Page page : atlasData.getPages()) {
+                asset.images.add(page.textureFile);
+            }
+        }
+        for (FileHandle image : asset.images) {
+            // Images already on the GPU would never be picked up by the texture loader
+            if (!assetManager.contains(image.path())) {
+                decoder.decode(image);
+            }
+        }
+    }
+
+    private void discardImages(PendingAsset asset) {
+        for (FileHandle image : asset.images) {
+            decoder.discard(image);
+        }
+    }
+
+    private int indexOfPending(String fileName) {
+        for (int i = 0; i < pending.size; i++) {
+            if (pending.get(i).descriptor.fileName.equals(fileName)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     // Dispose of the asset manager and all its assets
     @Override
     public void dispose() {
+        pending.clear();
+        loading = null;
         assetManager.dispose();
+        decoder.dispose();
+    }
+
+    private static class PendingAsset {
+        final AssetDescriptor<?> descriptor;
+        int priority;
+        // Image files decoded ahead for this asset
+        Array<FileHandle> images;
+
+        PendingAsset(AssetDescriptor<?> descriptor, int priority) {
+            this.descriptor = descriptor;
+            this.priority = priority;
+        }
     }
 }
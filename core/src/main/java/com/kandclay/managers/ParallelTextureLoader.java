@@ -0,0 +1,185 @@
+package com.kandclay.managers;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.assets.AssetDescriptor;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.assets.loaders.AsynchronousAssetLoader;
+import com.badlogic.gdx.assets.loaders.FileHandleResolver;
+import com.badlogic.gdx.assets.loaders.TextureLoader.TextureParameter;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.TextureData;
+import com.badlogic.gdx.graphics.glutils.FileTextureData;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.LongMap;
+
+import java.util.Arrays;
+
+/**
+ * Texture loader that picks up the pixmaps a {@link PixmapDecoder} has been decoding in parallel, and
+ * backs image files with identical content by a single GL texture. Image files are hashed as they load;
+ * a file matching one already on the GPU with the same texture parameters is not uploaded but becomes
+ * another {@link SharedTexture} of the same {@link SharedTexture.Source}. The filter and wrap of a GL texture
+ * hold for everything drawn with it, so a file loaded with other parameters gets a texture of its own.
+ * Textures given explicit texture data are loaded exactly like {@code TextureLoader} does.
+ */
+public class ParallelTextureLoader extends AsynchronousAssetLoader<Texture, TextureParameter> {
+    private static final String TAG = "ParallelTextureLoader";
+    private static final TextureParameter DEFAULT_PARAMETER = new TextureParameter();
+
+    private final PixmapDecoder decoder;
+    private final LongMap<SharedTexture.Source> sources;
+    private long memorySaved;
+
+    // Handed from loadAsync to loadSync; the asset manager loads one texture at a time
+    private TextureData data;
+    private SharedTexture.Source source;
+    private String settings;
+    private long key;
+    private boolean hashed;
+
+    public ParallelTextureLoader(FileHandleResolver resolver, PixmapDecoder decoder) {
+        super(resolver);
+        this.decoder = decoder;
+        this.sources = new LongMap<SharedTexture.Source>();
+    }
+
+    @Override
+    public void loadAsync(AssetManager manager, String fileName, FileHandle file, TextureParameter parameter) {
+        data = null;
+        source = null;
+        hashed = false;
+        Pixmap.Format format = parameter != null ? parameter.format : null;
+        boolean genMipMaps = parameter != null && parameter.genMipMaps;
+
+        if (parameter != null && (parameter.textureData != null || parameter.texture != null)) {
+            data = parameter.textureData != null ? parameter.textureData : TextureData.Factory.loadFromFile(file, format, genMipMaps);
+        } else if (PixmapDecoder.isImage(file)) {
+            Pixmap pixmap = null;
+            byte[] bytes = null;
+            long hash;
+            if (decoder.isQueued(file)) {
+                // Hashed by the decoder from the bytes it decoded
+                PixmapDecoder.Decoded decoded = decoder.take(file);
+                pixmap = decoded.pixmap;
+                hash = decoded.hash;
+            } else {
+                bytes = file.readBytes();
+                hash = PixmapDecoder.hash(bytes);
+            }
+            settings = describe(parameter);
+            key = hash ^ settings.hashCode() * 0x9e3779b97f4a7c15L;
+            hashed = true;
+            source = findSource(file, bytes);
+            if (source != null) {
+                if (pixmap != null) {
+                    pixmap.dispose();
+                }
+                return;
+            }
+            if (pixmap == null) {
+                pixmap = new Pixmap(bytes, 0, bytes.length);
+            }
+            if (format != null && pixmap.getFormat() != format) {
+                Pixmap converted = new Pixmap(pixmap.getWidth(), pixmap.getHeight(), format);
+                converted.setBlending(Pixmap.Blending.None);
+                converted.drawPixmap(pixmap, 0, 0);
+                pixmap.dispose();
+                pixmap = converted;
+            }
+            // File backed, so the texture is still reloaded from disk after a context loss
+            data = new FileTextureData(file, pixmap, format, genMipMaps);
+        } else {
+            data = TextureData.Factory.loadFromFile(file, format, genMipMaps);
+        }
+        if (!data.isPrepared()) {
+            data.prepare();
+        }
+    }
+
+    @Override
+    public Texture loadSync(AssetManager manager, String fileName, FileHandle file, TextureParameter parameter) {
+        Texture texture;
+        if (source != null) {
+            // Loaded with the same parameters, which the shared GL texture already has
+            texture = new SharedTexture(source);
+            memorySaved += source.getMemory();
+            Gdx.app.log(TAG, fileName + " has the same content as " + source.getFileName() + ", saved "
+                + source.getMemory() / 1024 + " KB of GPU memory (" + memorySaved / 1024 + " KB in total)");
+        } else if (hashed) {
+            Texture shared = new Texture(data);
+            applyParameter(shared, parameter);
+            SharedTexture.Source newSource = new SharedTexture.Source(shared, fileName, key, settings, sources);
+            newSource.retain();
+            synchronized (sources) {
+                // On a key collision the first file keeps the slot and this one is simply not shared
+                if (!sources.containsKey(key)) {
+                    sources.put(key, newSource);
+                }
+            }
+            texture = new SharedTexture(newSource);
+        } else if (parameter != null && parameter.texture != null) {
+            texture = parameter.texture;
+            texture.load(data);
+            applyParameter(texture, parameter);
+        } else {
+            texture = new Texture(data);
+            applyParameter(texture, parameter);
+        }
+        data = null;
+        source = null;
+        settings = null;
+        return texture;
+    }
+
+    @Override
+    public Array<AssetDescriptor> getDependencies(String fileName, FileHandle file, TextureParameter parameter) {
+        return null;
+    }
+
+    /**
+     * @return the GPU memory not allocated so far thanks to shared textures, in bytes
+     */
+    public long getMemorySaved() {
+        return memorySaved;
+    }
+
+    /**
+     * A match is confirmed by its parameters and byte by byte, and retained right away so it cannot go
+     * away before loadSync.
+     * @param bytes the file's content, or null to read it only if there is a match to compare with
+     */
+    private SharedTexture.Source findSource(FileHandle file, byte[] bytes) {
+        SharedTexture.Source match;
+        synchronized (sources) {
+            match = sources.get(key);
+            if (match == null) {
+                return null;
+            }
+            match.retain();
+        }
+        if (match.getSettings().equals(settings)
+            && Arrays.equals(bytes != null ? bytes : file.readBytes(), resolve(match.getFileName()).readBytes())) {
+            return match;
+        }
+        match.release();
+        return null;
+    }
+
+    // The parameters that make two textures of one file differ, as the sources' registry tells them apart
+    private static String describe(TextureParameter parameter) {
+        if (parameter == null) {
+            parameter = DEFAULT_PARAMETER;
+        }
+        return parameter.format + " " + parameter.genMipMaps + " " + parameter.minFilter + " " + parameter.magFilter
+            + " " + parameter.wrapU + " " + parameter.wrapV;
+    }
+
+    private static void applyParameter(Texture texture, TextureParameter parameter) {
+        if (parameter != null) {
+            texture.setFilter(parameter.minFilter, parameter.magFilter);
+            texture.setWrap(parameter.wrapU, parameter.wrapV);
+        }
+    }
+}
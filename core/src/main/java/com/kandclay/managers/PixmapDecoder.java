@@ -0,0 +1,119 @@
+package com.kandclay.managers;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.async.AsyncExecutor;
+import com.badlogic.gdx.utils.async.AsyncResult;
+import com.badlogic.gdx.utils.async.AsyncTask;
+
+/**
+ * Decodes image files into pixmaps on a pool of worker threads, ahead of the asset manager asking for
+ * them. The asset manager loads one asset at a time on a single thread, so without this every PNG and
+ * JPEG of a screen would be decoded one after the other. Decoding needs no GL context; the upload to the
+ * GPU still happens on the render thread when the texture is created. The bytes a pixmap is decoded from
+ * are hashed on the same worker, so the loader can tell identical files apart without reading them again.
+ */
+public class PixmapDecoder implements Disposable {
+    private final AsyncExecutor executor;
+    private final ObjectMap<String, AsyncResult<Decoded>> decoding;
+    private final int threads;
+
+    public PixmapDecoder(int threads) {
+        this.threads = threads;
+        this.executor = new AsyncExecutor(threads, "PixmapDecoder");
+        this.decoding = new ObjectMap<String, AsyncResult<Decoded>>();
+    }
+
+    /**
+     * Starts decoding the file on a worker thread. Files that are not images, or already queued, are ignored.
+     */
+    public synchronized void decode(final FileHandle file) {
+        if (!isImage(file) || decoding.containsKey(file.path())) {
+            return;
+        }
+        decoding.put(file.path(), executor.submit(new AsyncTask<Decoded>() {
+            @Override
+            public Decoded call() {
+                return read(file);
+            }
+        }));
+    }
+
+    public synchronized boolean isQueued(FileHandle file) {
+        return decoding.containsKey(file.path());
+    }
+
+    /**
+     * Waits for the file to be decoded and hands the pixmap over; the caller disposes it. Files that were
+     * never queued are decoded on the calling thread.
+     */
+    public Decoded take(FileHandle file) {
+        AsyncResult<Decoded> result;
+        synchronized (this) {
+            result = decoding.remove(file.path());
+        }
+        return result != null ? result.get() : read(file);
+    }
+
+    // Drop a decode that is no longer needed
+    public void discard(FileHandle file) {
+        AsyncResult<Decoded> result;
+        synchronized (this) {
+            result = decoding.remove(file.path());
+        }
+        if (result != null) {
+            result.get().pixmap.dispose();
+        }
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public static boolean isImage(FileHandle file) {
+        String extension = file.extension().toLowerCase();
+        return extension.equals("png") || extension.equals("jpg") || extension.equals("jpeg") || extension.equals("bmp");
+    }
+
+    @Override
+    public void dispose() {
+        Array<AsyncResult<Decoded>> results;
+        synchronized (this) {
+            results = decoding.values().toArray();
+            decoding.clear();
+        }
+        for (AsyncResult<Decoded> result : results) {
+            result.get().pixmap.dispose();
+        }
+        executor.dispose();
+    }
+
+    // 64-bit FNV-1a of a file's content
+    public static long hash(byte[] bytes) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : bytes) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static Decoded read(FileHandle file) {
+        byte[] bytes = file.readBytes();
+        return new Decoded(new Pixmap(bytes, 0, bytes.length), hash(bytes));
+    }
+
+    // A decoded image and the hash of the bytes it was decoded from
+    public static class Decoded {
+        public final Pixmap pixmap;
+        public final long hash;
+
+        Decoded(Pixmap pixmap, long hash) {
+            this.pixmap = pixmap;
+            this.hash = hash;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.kandclay.managers;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Camera;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.profiling.GLProfiler;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.scenes.scene2d.Stage;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.viewport.Viewport;
+import com.esotericsoftware.spine.SkeletonRenderer;
+import com.esotericsoftware.spine.utils.TwoColorPolygonBatch;
+import com.kandclay.utils.Constants;
+
+/**
+ * The one batch every screen draws with, owned by {@link com.kandclay.Main}. Screens ask for a pass with
+ * {@link #begin(Viewport)} instead of calling {@code begin()} and {@code end()} themselves: a pass with the
+ * same viewport and projection as the one drawing carries on without a flush, and the GL viewport and the
+ * batch projection are only changed when they actually differ from what was set last. The pass stays open
+ * until something else needs the GL state, see {@link #end()}, or the frame ends.
+ * <p>
+ * Start the game with {@code -Drender.profile=true} (see the {@code lwjgl3:runRenderProfile} task) to log
+ * draw calls, texture bindings and passes per frame from a {@link GLProfiler}.
+ */
+public class RenderService implements Disposable {
+    private static final String TAG = "RenderService";
+    public static final String PROPERTY = "render.profile";
+
+    private final TwoColorPolygonBatch batch;
+    private final SkeletonRenderer skeletonRenderer;
+
+    // The GL viewport and projection last set, so unchanged ones are not set again
+    private int viewportX, viewportY, viewportWidth, viewportHeight;
+    private boolean viewportKnown;
+    private final Matrix4 projection = new Matrix4();
+    private boolean projectionKnown;
+
+    private GLProfiler profiler;
+    private float profileTime;
+    private int frames;
+    private int passes, viewportChanges, projectionChanges;
+    private int drawCalls, textureBindings, shaderSwitches, flushes;
+
+    public RenderService() {
+        batch = new TwoColorPolygonBatch();
+        batch.setPremultipliedAlpha(true);
+        skeletonRenderer = new SkeletonRenderer();
+        skeletonRenderer.setPremultipliedAlpha(true);
+        if (isProfilingEnabled()) {
+            profiler = new GLProfiler(Gdx.graphics);
+            profiler.enable();
+        }
+    }
+
+    public static boolean isProfilingEnabled() {
+        return "true".equals(System.getProperty(PROPERTY));
+    }
+
+    public TwoColorPolygonBatch getBatch() {
+        return batch;
+    }
+
+    // Skeletons are premultiplied, so one renderer serves every screen
+    public SkeletonRenderer getSkeletonRenderer() {
+        return skeletonRenderer;
+    }
+
+    public void beginFrame() {
+        // The GL state may have been changed by anyone since the last frame
+        invalidate();
+        batch.setBlendFunction(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+        if (profiler != null) {
+            profiler.reset();
+        }
+    }
+
+    /**
+     * Makes the batch draw into the viewport with its camera's projection, carrying on with the current
+     * pass when neither changes.
+     */
+    public TwoColorPolygonBatch begin(Viewport viewport) {
+        apply(viewport);
+        return begin(viewport.getCamera());
+    }
+
+    /**
+     * Makes the batch draw with the camera's projection into whatever GL viewport is set, e.g. that of a
+     * bound frame buffer.
+     */
+    public TwoColorPolygonBatch begin(Camera camera) {
+        setProjection(camera.combined);
+        if (!batch.isDrawing()) {
+            batch.begin();
+            passes++;
+        }
+        return batch;
+    }
+
+    /**
+     * Ends the current pass, if any. Needed before anything else draws or changes the render target,
+     * such as a shape renderer or a frame buffer.
+     */
+    public void end() {
+        if (batch.isDrawing()) {
+            batch.end();
+        }
+    }
+
+    /**
+     * Sets the viewport's screen bounds as the GL viewport unless they are set already, flushing the
+     * batch first so what it holds is drawn where it was meant to be.
+     */
+    public void apply(Viewport viewport) {
+        if (viewportKnown && viewport.getScreenX() == viewportX && viewport.getScreenY() == viewportY
+            && viewport.getScreenWidth() == viewportWidth && viewport.getScreenHeight() == viewportHeight) {
+            return;
+        }
+        if (batch.isDrawing()) {
+            batch.flush();
+        }
+        viewport.apply();
+        viewportX = viewport.getScreenX();
+        viewportY = viewport.getScreenY();
+        viewportWidth = viewport.getScreenWidth();
+        viewportHeight = viewport.getScreenHeight();
+        viewportKnown = true;
+        viewportChanges++;
+    }
+
+    /**
+     * Draws a stage within the current pass rather than the separate one {@link Stage#draw()} would begin.
+     * The stage must have been created with this service's batch.
+     */
+    public void drawStage(Stage stage) {
+        stage.getCamera().update();
+        if (!stage.getRoot().isVisible()) {
+            return;
+        }
+        begin(stage.getViewport());
+        // Skin textures are not premultiplied, unlike the skeletons possibly drawn before
+        batch.setBlendFunction(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+        stage.getRoot().draw(batch, 1);
+    }
+
+    /**
+     * Forgets the GL viewport and projection set last. Call it after anything else changed them, such as
+     * ending a frame buffer.
+     */
+    public void invalidate() {
+        viewportKnown = false;
+        projectionKnown = false;
+    }
+
+    public void endFrame() {
+        end();
+        if (profiler != null) {
+            countFrame();
+        } else {
+            passes = viewportChanges = projectionChanges = 0;
+        }
+    }
+
+    private void setProjection(Matrix4 combined) {
+        if (projectionKnown && equals(projection, combined)) {
+            return;
+        }
+        // Flushes the batch if it is drawing
+        batch.setProjectionMatrix(combined);
+        projection.set(combined);
+        projectionKnown = true;
+        projectionChanges++;
+    }
+
+    private static boolean equals(Matrix4 a, Matrix4 b) {
+        for (int i = 0; i < 16; i++) {
+            if (a.val[i] != b.val[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void countFrame() {
+        frames++;
+        drawCalls += profiler.getDrawCalls();
+        textureBindings += profiler.getTextureBindings();
+        shaderSwitches += profiler.getShaderSwitches();
+        flushes += batch.totalRenderCalls;
+        batch.totalRenderCalls = 0;
+
+        profileTime += Gdx.graphics.getDeltaTime();
+        if (profileTime >= Constants.Render.PROFILE_INTERVAL) {
+            Gdx.app.log(TAG, "Per frame over " + frames + " frames: " + perFrame(drawCalls) + " draw calls, "
+                + perFrame(textureBindings) + " texture bindings, " + perFrame(shaderSwitches) + " shader switches, "
+                + perFrame(flushes) + " batch flushes, " + perFrame(passes) + " passes, "
+                + perFrame(viewportChanges) + " viewport and " + perFrame(projectionChanges) + " projection changes");
+            profileTime = 0;
+            frames = 0;
+            passes = viewportChanges = projectionChanges = 0;
+            drawCalls = textureBindings = shaderSwitches = flushes = 0;
+        }
+    }
+
+    private float perFrame(int count) {
+        return (float) count / frames;
+    }
+
+    @Override
+    public void dispose() {
+        if (profiler != null) {
+            profiler.disable();
+        }
+        batch.dispose();
+    }
+}
@@ -1,73 +1,384 @@
 package com.kandclay.managers;
 
 import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.utils.Array;
+import com.kandclay.handlers.InputHandler;
 import com.kandclay.handlers.SpriteSheetAnimationHandler;
 import com.kandclay.handlers.SpineAnimationHandler;
 import com.kandclay.screens.*;
+import com.kandclay.utils.Constants;
+import com.kandclay.utils.ScreenRetention;
 import com.kandclay.utils.ScreenType;
+import com.kandclay.utils.SimulationClock;
+import com.kandclay.utils.TrailDot;
 
+import java.util.EnumMap;
+import java.util.EnumSet;
+
+/**
+ * Owns the screens and drives them once per frame. With a {@link SimulationDriver}, animations are
+ * simulated on another thread through {@link #simulate(float)}; everything that touches screens or their
+ * animation states then holds this manager's lock, and only drawing runs outside of it.
+ */
 public class ScreenManager {
 
     private BaseScreen currentScreen;
+    private ScreenType currentType;
     private final SpriteSheetAnimationHandler spriteSheetAnimationHandler;
     private final SpineAnimationHandler spineAnimationHandler;
+    private final MyAssetManager assetManager;
+    private final InputHandler inputHandler;
+    private final RenderService renderService;
+    private final SimulationClock clock;
+    // Ticks of the simulation thread, when there is one
+    private final SimulationClock simulationClock;
+    private boolean threadedSimulation;
+
+    // Screens kept alive between visits, and their types from least to most recently shown
+    private final EnumMap<ScreenType, BaseScreen> screens;
+    private final Array<ScreenType> recentScreens;
+    // Screens to build as soon as their background loads are done
+    private final EnumSet<ScreenType> prewarming;
+    private ScreenRetention retention;
+    private int lruSize;
+
+    // Idle rendering: while nothing moves, frames are only drawn on input or when asked for
+    private boolean idle;
+    private final float frameTime;
+    private float expectedFrames;
+    private float skippedFrames;
 
-    public ScreenManager() {
-        MyAssetManager.getInstance();
+    public ScreenManager(RenderService renderService) {
+        this.renderService = renderService;
+        this.assetManager = MyAssetManager.getInstance();
         AudioManager.getInstance();
         ConfigurationManager.getInstance();
         this.spriteSheetAnimationHandler = new SpriteSheetAnimationHandler();
         this.spineAnimationHandler = new SpineAnimationHandler();
+        this.inputHandler = new InputHandler();
+        this.clock = new SimulationClock(Constants.Simulation.TICK_RATE, Constants.Simulation.MAX_TICKS_PER_FRAME);
+        this.simulationClock = new SimulationClock(Constants.Simulation.TICK_RATE, Constants.Simulation.MAX_TICKS_PER_FRAME);
+        this.screens = new EnumMap<ScreenType, BaseScreen>(ScreenType.class);
+        this.recentScreens = new Array<ScreenType>(ScreenType.values().length);
+        this.prewarming = EnumSet.noneOf(ScreenType.class);
+        this.retention = Constants.Screens.RETENTION;
+        this.lruSize = Constants.Screens.LRU_SIZE;
+        int refreshRate = Gdx.graphics.getDisplayMode().refreshRate;
+        this.frameTime = 1f / (refreshRate > 0 ? refreshRate : Constants.Screens.DEFAULT_REFRESH_RATE);
+    }
+
+    /**
+     * Lets a {@link SimulationDriver} run the animations. Screens then draw the poses it publishes instead
+     * of posing their skeletons on the render thread. Must be set before the first screen is shown.
+     */
+    public void setThreadedSimulation(boolean threadedSimulation) {
+        this.threadedSimulation = threadedSimulation;
+    }
+
+    public boolean isThreadedSimulation() {
+        return threadedSimulation;
+    }
+
+    public synchronized void setScreen(ScreenType screenType) {
+        // Screen switches are often posted from listeners and must not wait for the next input
+        requestRender();
+        // A screen whose assets are not in yet is opened through the loading screen
+        if (screenType != ScreenType.LOADING && !screens.containsKey(screenType)
+            && !assetManager.isScreenLoaded(screenType)) {
+            assetManager.loadScreenAssets(screenType, Constants.Loading.PRIORITY_SCREEN);
+            prewarming.remove(screenType);
+            showScreen(ScreenType.LOADING);
+            ((LoadingScreen) currentScreen).setTarget(screenType);
+            return;
+        }
+        showScreen(screenType);
     }
 
-    public void setScreen(ScreenType screenType) {
+    private void showScreen(ScreenType screenType) {
         if (currentScreen != null) {
             currentScreen.hide();
-            currentScreen.dispose();
+            if (retention == ScreenRetention.NONE) {
+                disposeScreen(currentType);
+            }
         }
+        currentType = screenType;
+        currentScreen = getOrCreateScreen(screenType);
+        if (screenType != ScreenType.LOADING) {
+            recentScreens.removeValue(screenType, true);
+            recentScreens.add(screenType);
+        }
+
+        currentScreen.show();
+        currentScreen.resize(Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
+        if (threadedSimulation) {
+            // The first frame must not wait for the simulation thread
+            currentScreen.pose(0);
+            currentScreen.publishPoses();
+        }
+        trimScreens();
+    }
+
+    /**
+     * Builds the given screen ahead of time so switching to it later is instant. Its assets are queued in
+     * the background and the screen is built on the render thread once they are loaded.
+     */
+    public synchronized void prewarm(ScreenType screenType) {
+        if (retention == ScreenRetention.NONE || screens.containsKey(screenType)) {
+            return;
+        }
+        assetManager.loadScreenAssets(screenType, Constants.Loading.PRIORITY_BACKGROUND);
+        prewarming.add(screenType);
+        requestRender();
+    }
+
+    /**
+     * Makes sure another frame is drawn even if rendering is idle, e.g. after a change made outside of
+     * input handling.
+     */
+    public void requestRender() {
+        if (idle) {
+            Gdx.graphics.requestRendering();
+        }
+    }
+
+    // Fraction of the frames the display could have shown that were not drawn because nothing moved
+    public float getSkippedFrameRatio() {
+        return expectedFrames > 0 ? skippedFrames / expectedFrames : 0;
+    }
+
+    public synchronized void setRetention(ScreenRetention retention, int lruSize) {
+        this.retention = retention;
+        this.lruSize = lruSize;
+        trimScreens();
+    }
+
+    public ScreenRetention getRetention() {
+        return retention;
+    }
+
+    public boolean isCached(ScreenType screenType) {
+        return screens.containsKey(screenType);
+    }
+
+    public InputHandler getInputHandler() {
+        return inputHandler;
+    }
+
+    public RenderService getRenderService() {
+        return renderService;
+    }
+
+    public SimulationClock getClock() {
+        return clock;
+    }
+
+    private BaseScreen getOrCreateScreen(ScreenType screenType) {
+        BaseScreen screen = screens.get(screenType);
+        if (screen == null) {
+            // Screens are normally opened through the loading screen, which waits for their assets
+            assetManager.loadScreenAssets(screenType);
+            if (!assetManager.isScreenLoaded(screenType)) {
+                assetManager.finishLoading();
+            }
+            screen = createScreen(screenType);
+            screen.ensureBuilt();
+            if (threadedSimulation) {
+                screen.enablePoseBuffers();
+            }
+            screens.put(screenType, screen);
+            spineAnimationHandler.getSkeletonDataCache().logStats();
+        }
+        return screen;
+    }
+
+    private BaseScreen createScreen(ScreenType screenType) {
         switch (screenType) {
             case MENU:
-                currentScreen = new MainMenuScreen(spineAnimationHandler, this);
-                break;
+                return new MainMenuScreen(spineAnimationHandler, this);
             case MAIN:
-                currentScreen = new MainAnimationScreen(spineAnimationHandler, this);
-                break;
+                return new MainAnimationScreen(spineAnimationHandler, this);
             case STGS:
-                currentScreen = new ConfigurationScreen(spineAnimationHandler, this);
+                return new ConfigurationScreen(spineAnimationHandler, this);
+            case LOADING:
+                return new LoadingScreen(spineAnimationHandler, this);
+            default:
+                throw new IllegalArgumentException("Unknown screen type: " + screenType);
+        }
+    }
+
+    // Dispose the cached screens the retention policy no longer allows; the current screen always stays
+    private void trimScreens() {
+        switch (retention) {
+            case NONE:
+                disposeCachedScreens();
+                break;
+            case LRU:
+                // recentScreens ends with the current screen, which does not count towards the limit
+                while (recentScreens.size > lruSize + 1) {
+                    disposeScreen(recentScreens.first());
+                }
+                break;
+            case MEMORY_PRESSURE:
+                Runtime runtime = Runtime.getRuntime();
+                long available = runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory());
+                if (available < runtime.maxMemory() * Constants.Screens.MIN_FREE_HEAP) {
+                    Gdx.app.log("ScreenManager", "Low on memory, disposing cached screens");
+                    disposeCachedScreens();
+                }
+                break;
+            case ALWAYS:
                 break;
         }
-        currentScreen.show();
-        currentScreen.resize(Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
+    }
+
+    private void disposeCachedScreens() {
+        for (ScreenType screenType : ScreenType.values()) {
+            if (screenType != currentType) {
+                disposeScreen(screenType);
+            }
+        }
+    }
+
+    private void disposeScreen(ScreenType screenType) {
+        recentScreens.removeValue(screenType, true);
+        boolean wasPrewarming = prewarming.remove(screenType);
+        BaseScreen screen = screens.remove(screenType);
+        if (screen != null) {
+            screen.dispose();
+        }
+        if (screen != null || wasPrewarming) {
+            assetManager.unloadScreenAssets(screenType);
+            // Skeleton data parsed from the unloaded atlases would point at disposed textures
+            spineAnimationHandler.getSkeletonDataCache().evictUnused();
+        }
     }
 
     public void render(float delta) {
-        if (currentScreen != null) {
-            currentScreen.render(delta);
+        countFrame(delta);
+        if (idle) {
+            // The first frame after a pause must not advance animations by the whole time spent idle
+            delta = Math.min(delta, frameTime);
         }
+        BaseScreen screen;
+        synchronized (this) {
+            if (threadedSimulation && currentScreen != null) {
+                // Hit tests during the input below see the same poses as the frame
+                currentScreen.acquirePoses();
+            }
+            // Input queued since the last frame reaches the screen once, with the moves merged
+            inputHandler.flush();
+            // The loading screen runs the loads itself, with a larger budget
+            if (currentType != ScreenType.LOADING) {
+                assetManager.update(Constants.Loading.BACKGROUND_BUDGET_MS, Constants.Loading.PRIORITY_BACKGROUND);
+                buildPrewarmedScreens();
+            }
+            // Animations advance in fixed ticks; the screen renders the time left over by posing ahead
+            int ticks = clock.advance(delta);
+            for (int i = 0; i < ticks && currentScreen != null; i++) {
+                if (!threadedSimulation) {
+                    currentScreen.update(clock.getStep());
+                }
+                currentScreen.updateTrails(clock.getStep());
+            }
+            if (!threadedSimulation && currentScreen != null) {
+                currentScreen.pose(clock.getRemainder());
+            }
+            screen = currentScreen;
+        }
+        if (screen != null) {
+            renderService.beginFrame();
+            screen.render(delta);
+            renderService.endFrame();
+        }
+        synchronized (this) {
+            updateRenderMode();
+        }
+    }
+
+    /**
+     * Advances the current screen's animations by the given time and publishes the resulting poses for
+     * the render thread. Called by the {@link SimulationDriver} on its own thread; does nothing while
+     * rendering is idle, since no animation is playing then.
+     */
+    public synchronized void simulate(float delta) {
+        if (currentScreen == null || idle) {
+            simulationClock.reset();
+            return;
+        }
+        int ticks = simulationClock.advance(delta);
+        if (ticks == 0) {
+            return;
+        }
+        for (int i = 0; i < ticks; i++) {
+            currentScreen.update(simulationClock.getStep());
+        }
+        currentScreen.pose(0);
+        currentScreen.publishPoses();
     }
 
-    public void resize(int width, int height) {
+    /**
+     * Switches to non-continuous rendering once the frame just drawn would be drawn again unchanged: the
+     * screen has nothing animating, no assets are loading and no screen waits to be prewarmed. Input wakes
+     * rendering up again through the backend; anything else calls {@link #requestRender()}.
+     */
+    private void updateRenderMode() {
+        boolean quiet = Constants.Screens.IDLE_RENDERING
+            && (currentScreen == null || !currentScreen.isAnimating())
+            && prewarming.isEmpty() && assetManager.isIdle();
+        if (quiet != idle) {
+            idle = quiet;
+            Gdx.graphics.setContinuousRendering(!quiet);
+        }
+    }
+
+    // Each frame stands for the frames the display refreshed since the previous one
+    private void countFrame(float delta) {
+        float frames = Math.max(1f, delta / frameTime);
+        expectedFrames += frames;
+        skippedFrames += frames - 1f;
+    }
+
+    private void buildPrewarmedScreens() {
+        for (ScreenType screenType : ScreenType.values()) {
+            if (prewarming.contains(screenType) && assetManager.isScreenLoaded(screenType)) {
+                prewarming.remove(screenType);
+                getOrCreateScreen(screenType);
+            }
+        }
+    }
+
+    public synchronized void resize(int width, int height) {
         if (currentScreen != null) {
             currentScreen.resize(width, height);
         }
     }
 
-    public void pause() {
+    public synchronized void pause() {
         if (currentScreen != null) {
             currentScreen.pause();
         }
     }
 
-    public void resume() {
+    public synchronized void resume() {
         if (currentScreen != null) {
             currentScreen.resume();
         }
     }
 
-    public void dispose() {
+    public synchronized void dispose() {
         if (currentScreen != null) {
-            currentScreen.dispose();
+            currentScreen.hide();
         }
+        for (BaseScreen screen : screens.values()) {
+            screen.dispose();
+        }
+        screens.clear();
+        recentScreens.clear();
+        prewarming.clear();
+        currentScreen = null;
+        TrailDot.clear();
+        Gdx.app.log("ScreenManager", "Skipped " + (int) (getSkippedFrameRatio() * 100) + "% of frames while idle");
+        Gdx.app.log("ScreenManager", "Dropped " + (clock.getDroppedTicks() + simulationClock.getDroppedTicks())
+            + " simulation ticks behind slow frames");
     }
 }
-
@@ -0,0 +1,229 @@
+package com.kandclay.managers;
+
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.TextureData;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.LongMap;
+
+/**
+ * A texture drawing from a GL texture that is shared with every other texture loaded from a file with the
+ * same content. The GL texture belongs to a {@link Source}, which counts the shared textures using it and
+ * deletes it once the last one is disposed. A shared texture starts with the source's filter and wrap, and
+ * since they are the GL texture's, setting them on one shared texture sets them for all of its source.
+ * <p>
+ * Disposing a shared texture more than once only releases it once. This matters because the asset manager
+ * disposes an atlas page texture twice when the atlas is unloaded: once through
+ * {@code TextureAtlas.dispose()} and once more when the page texture, a dependency of the atlas, is unloaded.
+ */
+public class SharedTexture extends Texture {
+    private final Source source;
+    private boolean released;
+
+    SharedTexture(Source source) {
+        super(GL20.GL_TEXTURE_2D, source.texture.getTextureObjectHandle(), new SharedTextureData(source.texture));
+        this.source = source;
+    }
+
+    public Source getSource() {
+        return source;
+    }
+
+    /**
+     * Called by the Texture constructor, and sets every sampler parameter of the GL texture. Taken from the
+     * source texture first, they are the ones it already has, so the textures sharing it keep theirs.
+     */
+    @Override
+    public void load(TextureData data) {
+        if (data instanceof SharedTextureData) {
+            Texture texture = ((SharedTextureData) data).texture;
+            minFilter = texture.getMinFilter();
+            magFilter = texture.getMagFilter();
+            uWrap = texture.getUWrap();
+            vWrap = texture.getVWrap();
+            anisotropicFilterLevel = texture.getAnisotropicFilter();
+        }
+        super.load(data);
+    }
+
+    // The source texture gets a new GL handle when it is reloaded after a context loss
+    @Override
+    public void bind() {
+        syncHandle();
+        super.bind();
+    }
+
+    @Override
+    public void bind(int unit) {
+        syncHandle();
+        super.bind(unit);
+    }
+
+    @Override
+    public int getTextureObjectHandle() {
+        syncHandle();
+        return super.getTextureObjectHandle();
+    }
+
+    private void syncHandle() {
+        // Called from the Texture constructor too, before the source is assigned
+        if (source != null && !released) {
+            glHandle = source.texture.getTextureObjectHandle();
+        }
+    }
+
+    @Override
+    public void dispose() {
+        if (released) {
+            return;
+        }
+        released = true;
+        // The GL texture is not ours to delete
+        glHandle = 0;
+        source.release();
+    }
+
+    /**
+     * The texture behind one or more shared textures, registered under a key made of the hash of its file's
+     * content and the texture parameters it was loaded with.
+     */
+    public static class Source {
+        final Texture texture;
+        final String fileName;
+        final long hash;
+        final String settings;
+        private final LongMap<Source> registry;
+        private int references;
+
+        Source(Texture texture, String fileName, long hash, String settings, LongMap<Source> registry) {
+            this.texture = texture;
+            this.fileName = fileName;
+            this.hash = hash;
+            this.settings = settings;
+            this.registry = registry;
+        }
+
+        void retain() {
+            synchronized (registry) {
+                references++;
+            }
+        }
+
+        void release() {
+            synchronized (registry) {
+                if (--references > 0) {
+                    return;
+                }
+                if (registry.get(hash) == this) {
+                    registry.remove(hash);
+                }
+            }
+            texture.dispose();
+        }
+
+        public int getReferences() {
+            synchronized (registry) {
+                return references;
+            }
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+
+        // The texture parameters it was loaded with, as the loader describes them
+        public String getSettings() {
+            return settings;
+        }
+
+        // Approximate size of the texture on the GPU, ignoring mipmaps
+        public long getMemory() {
+            TextureData data = texture.getTextureData();
+            return (long) data.getWidth() * data.getHeight() * bytesPerPixel(data.getFormat());
+        }
+    }
+
+    public static int bytesPerPixel(Pixmap.Format format) {
+        if (format == null) {
+            return 4;
+        }
+        switch (format) {
+            case Alpha:
+            case Intensity:
+                return 1;
+            case LuminanceAlpha:
+            case RGB565:
+            case RGBA4444:
+                return 2;
+            case RGB888:
+                return 3;
+            default:
+                return 4;
+        }
+    }
+
+    // Describes the source's image without uploading anything: the GL texture already holds it
+    private static class SharedTextureData implements TextureData {
+        private final Texture texture;
+        private final TextureData source;
+
+        SharedTextureData(Texture texture) {
+            this.texture = texture;
+            this.source = texture.getTextureData();
+        }
+
+        @Override
+        public TextureDataType getType() {
+            return TextureDataType.Custom;
+        }
+
+        @Override
+        public boolean isPrepared() {
+            return true;
+        }
+
+        @Override
+        public void prepare() {
+        }
+
+        @Override
+        public Pixmap consumePixmap() {
+            throw new GdxRuntimeException("Shared texture data has no pixmap");
+        }
+
+        @Override
+        public boolean disposePixmap() {
+            return false;
+        }
+
+        @Override
+        public void consumeCustomData(int target) {
+        }
+
+        @Override
+        public int getWidth() {
+            return source.getWidth();
+        }
+
+        @Override
+        public int getHeight() {
+            return source.getHeight();
+        }
+
+        @Override
+        public Pixmap.Format getFormat() {
+            return source.getFormat();
+        }
+
+        @Override
+        public boolean useMipMaps() {
+            return source.useMipMaps();
+        }
+
+        @Override
+        public boolean isManaged() {
+            return false;
+        }
+    }
+}
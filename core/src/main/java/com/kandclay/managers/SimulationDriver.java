@@ -0,0 +1,14 @@
+package com.kandclay.managers;
+
+/**
+ * Runs the animation simulation away from the render thread by calling
+ * {@link ScreenManager#simulate(float)} at the simulation's tick rate. Only platforms with threads
+ * provide one; without it the simulation runs on the render thread.
+ */
+public interface SimulationDriver {
+
+    void start(ScreenManager screenManager);
+
+    // Stops calling the screen manager and waits until the last call has returned
+    void stop();
+}
@@ -0,0 +1,65 @@
+package com.kandclay.managers;
+
+import com.badlogic.gdx.assets.AssetDescriptor;
+import com.badlogic.gdx.assets.AssetLoaderParameters;
+import com.badlogic.gdx.assets.AssetManager;
+import com.badlogic.gdx.assets.loaders.AsynchronousAssetLoader;
+import com.badlogic.gdx.assets.loaders.FileHandleResolver;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.utils.Array;
+import com.esotericsoftware.spine.SkeletonData;
+import com.kandclay.handlers.SkeletonReader;
+
+/**
+ * Loads Spine {@link SkeletonData} through the {@link AssetManager}. The texture atlas is declared as a
+ * dependency and the skeleton file is parsed in the asynchronous phase, off the render thread. Binary
+ * {@code .skel} paths fall back to the JSON export when the binary file does not exist.
+ */
+public class SkeletonDataLoader extends AsynchronousAssetLoader<SkeletonData, SkeletonDataLoader.SkeletonDataParameter> {
+    private SkeletonData skeletonData;
+
+    public SkeletonDataLoader(FileHandleResolver resolver) {
+        super(resolver);
+    }
+
+    @Override
+    public Array<AssetDescriptor> getDependencies(String fileName, FileHandle file, SkeletonDataParameter parameter) {
+        Array<AssetDescriptor> dependencies = new Array<AssetDescriptor>();
+        dependencies.add(new AssetDescriptor<TextureAtlas>(getAtlasPath(file, parameter), TextureAtlas.class));
+        return dependencies;
+    }
+
+    @Override
+    public void loadAsync(AssetManager manager, String fileName, FileHandle file, SkeletonDataParameter parameter) {
+        TextureAtlas atlas = manager.get(getAtlasPath(file, parameter), TextureAtlas.class);
+        skeletonData = SkeletonReader.read(atlas, file, parameter != null ? parameter.scale : 1f);
+    }
+
+    @Override
+    public SkeletonData loadSync(AssetManager manager, String fileName, FileHandle file, SkeletonDataParameter parameter) {
+        SkeletonData data = skeletonData;
+        skeletonData = null;
+        return data;
+    }
+
+    // The atlas defaults to the skeleton file with an .atlas extension
+    private String getAtlasPath(FileHandle file, SkeletonDataParameter parameter) {
+        if (parameter != null && parameter.atlasPath != null) {
+            return parameter.atlasPath;
+        }
+        return file.pathWithoutExtension() + ".atlas";
+    }
+
+    public static class SkeletonDataParameter extends AssetLoaderParameters<SkeletonData> {
+        public String atlasPath;
+        public float scale = 1f;
+
+        public SkeletonDataParameter() {
+        }
+
+        public SkeletonDataParameter(String atlasPath) {
+            this.atlasPath = atlasPath;
+        }
+    }
+}
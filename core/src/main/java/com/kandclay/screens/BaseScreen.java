@@ -1,25 +1,34 @@
 package com.kandclay.screens;
 
 import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.InputMultiplexer;
 import com.badlogic.gdx.Screen;
 import com.badlogic.gdx.graphics.GL20;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
-import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.scenes.scene2d.InputEvent;
 import com.badlogic.gdx.scenes.scene2d.InputListener;
 import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IdentityMap;
 import com.badlogic.gdx.utils.viewport.Viewport;
 import com.esotericsoftware.spine.*;
-import com.esotericsoftware.spine.attachments.RegionAttachment;
+import com.esotericsoftware.spine.utils.TwoColorPolygonBatch;
+import com.kandclay.handlers.InputHandler;
 import com.kandclay.handlers.SpineAnimationHandler;
 import com.kandclay.managers.AudioManager;
 import com.kandclay.managers.ConfigurationManager;
 import com.kandclay.managers.MyAssetManager;
+import com.kandclay.managers.RenderService;
 import com.kandclay.managers.ScreenManager;
+import com.kandclay.utils.AnimationBounds;
+import com.kandclay.utils.HitRegionIndex;
+import com.kandclay.utils.PoseBuffer;
+import com.kandclay.utils.PoseCache;
+import com.kandclay.utils.SkeletonLod;
+import com.kandclay.utils.Trail;
 import com.kandclay.utils.TrailDot;
-
-import java.util.HashMap;
+import com.kandclay.utils.TrailMode;
 
 public abstract class BaseScreen implements Screen {
 
@@ -28,12 +37,20 @@ public abstract class BaseScreen implements Screen {
     protected SpineAnimationHandler spineAnimationHandler;
     protected ConfigurationManager configManager;
     protected ScreenManager screenManager;
+    protected RenderService renderService;
     protected ShapeRenderer shapeRenderer;
 
     protected SkeletonRenderer skeletonRenderer;
     protected Array<AnimationState> states;
     protected Array<Skeleton> skeletons;
-    protected HashMap<String, Boolean> hoverStates;
+    protected IdentityMap<Viewport, Trail> trails;
+    protected InputMultiplexer inputMultiplexer;
+    private boolean built;
+    private final SkeletonLod culling = new SkeletonLod();
+    // Published poses of the skeletons, by skeleton index, when simulated on another thread
+    private Array<PoseBuffer> poseBuffers;
+    // Pose versions and recorded vertices of the skeletons, by skeleton index
+    private final Array<PoseCache> poseCaches = new Array<PoseCache>();
 
     public BaseScreen(SpineAnimationHandler spineAnimationHandler, ScreenManager screenManager) {
         this.assetManager = MyAssetManager.getInstance();
@@ -41,27 +58,124 @@ public abstract class BaseScreen implements Screen {
         this.configManager = ConfigurationManager.getInstance();
         this.spineAnimationHandler = spineAnimationHandler;
         this.screenManager = screenManager;
+        this.renderService = screenManager.getRenderService();
+        this.skeletonRenderer = renderService.getSkeletonRenderer();
 
         this.skeletons = new Array<Skeleton>();
         this.states = new Array<AnimationState>();
+        this.trails = new IdentityMap<Viewport, Trail>();
+        this.inputMultiplexer = new InputMultiplexer();
 
         // Gdx.input.setInputProcessor(stage);
     }
 
     public void addTrailToStage(final Stage stage, final Viewport viewport) {
         TrailDot.setSpineAnimationHandler(this.spineAnimationHandler);
+        TrailDot.setMode(TrailMode.valueOf(configManager.getPreference("trailMode", TrailMode.BAKED.toString())));
+        final Trail trail = new Trail(viewport);
+        trails.put(viewport, trail);
+        final Vector2 point = new Vector2();
         stage.addListener(new InputListener() {
             @Override
             public boolean mouseMoved(InputEvent event, float x, float y) {
-                TrailDot.createTrailDot(x, y, viewport);
+                // A merged move leaves a dot at every position the pointer went through since the last frame
+                InputHandler input = screenManager.getInputHandler();
+                for (int i = 0; i < input.getPathLength() - 1; i++) {
+                    int screenX = input.getPathX(i);
+                    int screenY = input.getPathY(i);
+                    stage.screenToStageCoordinates(point.set(screenX, screenY));
+                    trail.emit(screenX, screenY, point.x, point.y);
+                }
+                trail.emit(x, y);
                 return true;
             }
         });
     }
 
+    // Only the trail of the given viewport is touched, so viewports never scan each other's dots
+    protected void renderTrail(Viewport viewport) {
+        Trail trail = trails.get(viewport);
+        if (trail != null && trail.size() > 0) {
+            trail.draw(renderService.begin(viewport));
+        }
+    }
+
+    public void updateTrails(float step) {
+        for (Trail trail : trails.values()) {
+            trail.update(step);
+        }
+    }
+
+    /**
+     * Whether the next frame would differ from the last one without any input: an animation is playing or
+     * trail dots are still fading out. Rendering stops while this is false.
+     */
+    public boolean isAnimating() {
+        for (int i = 0; i < states.size; i++) {
+            if (isPlaying(states.get(i))) {
+                return true;
+            }
+        }
+        return hasLiveTrails();
+    }
+
+    // A track plays while it loops, mixes, has not reached its end or has an animation queued after it
+    protected static boolean isPlaying(AnimationState state) {
+        Array<AnimationState.TrackEntry> tracks = state.getTracks();
+        for (int i = 0; i < tracks.size; i++) {
+            AnimationState.TrackEntry entry = tracks.get(i);
+            if (entry != null && (entry.getLoop() || !entry.isComplete()
+                || entry.getMixingFrom() != null || entry.getNext() != null)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    protected boolean hasLiveTrails() {
+        for (Trail trail : trails.values()) {
+            if (trail.size() > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    protected void clearTrails() {
+        for (Trail trail : trails.values()) {
+            trail.clear();
+        }
+    }
+
+    /**
+     * Creates everything the screen needs. Called once, the first time the screen is shown or prewarmed,
+     * so a screen kept alive by the {@link ScreenManager} is not rebuilt when it is shown again.
+     */
+    protected void build() {
+    }
+
+    public final void ensureBuilt() {
+        if (!built) {
+            build();
+            built = true;
+            // Measure the bounds now rather than during the first frame that culls
+            for (int i = 0; i < skeletons.size; i++) {
+                spineAnimationHandler.getSkeletonDataCache().getAnimationBounds(skeletons.get(i).getData());
+                poseCaches.add(new PoseCache());
+            }
+        }
+    }
+
+    public boolean isBuilt() {
+        return built;
+    }
+
     @Override
     public void show() {
-
+        ensureBuilt();
+        InputHandler input = screenManager.getInputHandler();
+        input.setProcessor(inputMultiplexer);
+        Gdx.input.setInputProcessor(input);
     }
 
     public void clearScreen() {
@@ -69,6 +183,91 @@ public abstract class BaseScreen implements Screen {
         Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
     }
 
+    /**
+     * Advances the screen's animations by one tick of the {@link ScreenManager}'s simulation clock. Called
+     * as many times as the clock asks for before each {@link #render(float)}, possibly not at all, and on
+     * the simulation thread when there is one.
+     */
+    public void update(float step) {
+    }
+
+    /**
+     * Applies the animation states to the skeletons and updates their world transforms, posing them the
+     * given number of seconds ahead of the last tick. Called after the ticks of a frame, or of the
+     * simulation thread, and before the poses are drawn or published.
+     */
+    public void pose(float ahead) {
+    }
+
+    /**
+     * Whether a skeleton has to be posed again to show its state the given number of seconds ahead, see
+     * {@link PoseCache}. Screens only apply the state and update the world transform when it does.
+     */
+    protected boolean needsPose(int index, float ahead) {
+        return poseCaches.get(index).needsPose(skeletons.get(index), states.get(index), ahead);
+    }
+
+    // Makes the next pose of a skeleton be computed in full, after changing it outside its animation state
+    protected void invalidatePose(int index) {
+        poseCaches.get(index).invalidate();
+    }
+
+    /**
+     * Gives every skeleton a {@link PoseBuffer}, so it can be simulated on another thread while the last
+     * published pose is drawn.
+     */
+    public void enablePoseBuffers() {
+        if (poseBuffers != null) {
+            return;
+        }
+        poseBuffers = new Array<PoseBuffer>(skeletons.size);
+        for (int i = 0; i < skeletons.size; i++) {
+            poseBuffers.add(new PoseBuffer(skeletons.get(i)));
+        }
+    }
+
+    public void publishPoses() {
+        if (poseBuffers != null) {
+            for (int i = 0; i < poseBuffers.size; i++) {
+                poseBuffers.get(i).publish(skeletons.get(i));
+            }
+        }
+    }
+
+    public void acquirePoses() {
+        if (poseBuffers != null) {
+            for (int i = 0; i < poseBuffers.size; i++) {
+                poseBuffers.get(i).acquire();
+            }
+        }
+    }
+
+    /**
+     * The pose of a skeleton to draw and hit-test this frame: the latest published pose when the
+     * simulation runs on its own thread, the skeleton itself otherwise.
+     */
+    protected Skeleton getPose(int index) {
+        return poseBuffers != null ? poseBuffers.get(index).getFront() : skeletons.get(index);
+    }
+
+    /**
+     * Draws the pose of a skeleton, unless none of its animations can reach into the viewport. The bounds
+     * come from the skeleton itself, whose position and scale the pose shares. A pose that has not changed
+     * is drawn from the vertices recorded for it, except for poses published by another thread.
+     */
+    protected void drawSkeleton(TwoColorPolygonBatch batch, int index, Viewport viewport) {
+        Skeleton skeleton = skeletons.get(index);
+        AnimationBounds bounds = spineAnimationHandler.getSkeletonDataCache().getAnimationBounds(skeleton.getData());
+        if (!culling.isVisible(viewport, skeleton, bounds)) {
+            return;
+        }
+        if (poseBuffers == null) {
+            poseCaches.get(index).draw(batch, skeletonRenderer, skeleton);
+        } else {
+            skeletonRenderer.draw(batch, getPose(index));
+        }
+    }
+
     @Override
     public void render(float delta) {
         clearScreen();
@@ -92,6 +291,7 @@ public abstract class BaseScreen implements Screen {
     @Override
     public void hide() {
         // Override in subclasses to hide the screen
+        clearTrails();
     }
 
     @Override
@@ -99,6 +299,20 @@ public abstract class BaseScreen implements Screen {
         if (shapeRenderer != null) {
             shapeRenderer.dispose();
         }
+        releaseSkeletons();
+        clearTrails();
+        trails.clear();
+    }
+
+    // Hand the skeleton data back to the cache so it can be evicted once no screen uses it
+    protected void releaseSkeletons() {
+        for (Skeleton skeleton : skeletons) {
+            spineAnimationHandler.releaseSkeleton(skeleton);
+        }
+        skeletons.clear();
+        states.clear();
+        poseBuffers = null;
+        poseCaches.clear();
     }
 
     protected void setSkeletonScale(Skeleton skeleton, float widthPercentage, float heightPercentage, Viewport viewport) {
@@ -119,54 +333,24 @@ public abstract class BaseScreen implements Screen {
         }
     }
 
-    protected boolean isHoveringButton(float x, float y, String buttonName, int pos) {
-        Rectangle buttonBounds = getButtonBounds(buttonName, pos);
-        return buttonBounds.contains(x, y);
-    }
-
-    protected Rectangle getButtonBounds(String buttonName, int pos) {
-        return getRectangle(buttonName, buttonName, skeletons.get(pos));
-    }
-
-    protected void updateHoverState(float x, float y, String buttonName, int pos, int trackIndex, String hoverInAnim, String hoverOutAnim) {
-        boolean isHovered = isHoveringButton(x, y, buttonName, pos);
-        boolean wasHovered = hoverStates.get(buttonName);
-
-        if (isHovered && !wasHovered) {
-            states.get(pos).setAnimation(trackIndex, hoverInAnim, false);
-        } else if (!isHovered && wasHovered) {
-            states.get(pos).setAnimation(trackIndex, hoverOutAnim, false);
+    /**
+     * Plays the hover-in or hover-out animation of a hit region when the pointer enters or leaves it.
+     */
+    protected void updateHoverState(float x, float y, HitRegionIndex hitRegions, int region, AnimationState state,
+                                    int trackIndex, Animation hoverInAnim, Animation hoverOutAnim) {
+        boolean isHovered = hitRegions.contains(region, x, y);
+        if (hitRegions.setHovered(region, isHovered)) {
+            state.setAnimation(trackIndex, isHovered ? hoverInAnim : hoverOutAnim, false);
         }
-
-        hoverStates.put(buttonName, isHovered);
     }
 
-    protected Rectangle getRectangle(String buttonName, String bgSlotName, Skeleton skeleton) {
-        Bone bone = skeleton.findBone(buttonName);
-        if (bone == null) return new Rectangle();
-
-        Slot slot = skeleton.findSlot(bgSlotName);  // Use the background slot
-        if (slot == null || !(slot.getAttachment() instanceof RegionAttachment)) return new Rectangle();
-
-        RegionAttachment attachment = (RegionAttachment) slot.getAttachment();
-        if (attachment == null) return new Rectangle();
-
-        float[] vertices = new float[8];
-        attachment.computeWorldVertices(slot.getBone(), vertices, 0, 2);
-
-        float minX = vertices[0];
-        float minY = vertices[1];
-        float maxX = vertices[0];
-        float maxY = vertices[1];
-
-        for (int i = 2; i < vertices.length; i += 2) {
-            if (vertices[i] < minX) minX = vertices[i];
-            if (vertices[i + 1] < minY) minY = vertices[i + 1];
-            if (vertices[i] > maxX) maxX = vertices[i];
-            if (vertices[i + 1] > maxY) maxY = vertices[i + 1];
+    // Outline the hit regions, for debugging; the shape renderer must have begun
+    protected void drawHitRegions(HitRegionIndex hitRegions) {
+        for (int i = 0; i < hitRegions.size(); i++) {
+            if (hitRegions.getVertexCount(i) > 0) {
+                shapeRenderer.polygon(hitRegions.getVertices(i), 0, hitRegions.getVertexCount(i));
+            }
         }
-
-        return new Rectangle(minX, minY, maxX - minX, maxY - minY);
     }
 
     protected void setSkeletonPosition(Skeleton skeleton, float x, float y) {
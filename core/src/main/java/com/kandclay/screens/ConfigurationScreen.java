@@ -1,10 +1,8 @@
 package com.kandclay.screens;
 
 import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.InputMultiplexer;
 import com.badlogic.gdx.graphics.Camera;
 import com.badlogic.gdx.graphics.OrthographicCamera;
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.scenes.scene2d.Actor;
 import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.scenes.scene2d.ui.*;
@@ -13,10 +11,12 @@ import com.badlogic.gdx.utils.viewport.ScreenViewport;
 import com.badlogic.gdx.utils.viewport.Viewport;
 import com.kandclay.handlers.SpineAnimationHandler;
 import com.kandclay.managers.ScreenManager;
+import com.kandclay.utils.CoinVariant;
 import com.kandclay.utils.Constants;
 import com.kandclay.utils.HairColor;
 import com.kandclay.utils.ScreenType;
 import com.kandclay.utils.TrailDot;
+import com.kandclay.utils.TrailMode;
 
 import javax.swing.text.View;
 
@@ -25,10 +25,11 @@ public class ConfigurationScreen extends BaseScreen {
     private TextButton backButton;
     private TextButton hairColorButton;
     private TextButton coinColorButton;
+    private TextButton trailModeButton;
     private HairColor currentHairColor;
-    private boolean isYellowCoin;
+    private TrailMode currentTrailMode;
+    private CoinVariant currentCoinVariant;
 
-    private SpriteBatch batch;
     private Camera camera;
     private Viewport viewport;
     private Stage stage;
@@ -39,22 +40,16 @@ public class ConfigurationScreen extends BaseScreen {
     }
 
     @Override
-    public void show() {
-
+    protected void build() {
         camera = new OrthographicCamera();
         viewport = new ScreenViewport(camera);
-        stage = new Stage(viewport);
-        batch = new SpriteBatch();
+        stage = new Stage(viewport, renderService.getBatch());
 
         Skin skin = assetManager.get(Constants.Skin.JSON, Skin.class);
-        float savedVolume = configManager.getPreference("volume", Constants.Audio.DEFAULT_VOLUME);
-        String savedHairColor = configManager.getPreference("hairColor", HairColor.BLONDE.toString());
-        isYellowCoin = configManager.getPreference("coinColor", true);
-
-        currentHairColor = HairColor.valueOf(savedHairColor);
 
         volumeSlider = new Slider(0, 1, 0.01f, false, skin);
-        volumeSlider.setValue(savedVolume);
+        // Only a drag is a change to save, not the value loaded from the preferences
+        volumeSlider.setProgrammaticChangeEvents(false);
         volumeSlider.addListener(new ChangeListener() {
             @Override
             public void changed(ChangeEvent event, Actor actor) {
@@ -72,7 +67,7 @@ public class ConfigurationScreen extends BaseScreen {
             }
         });
 
-        hairColorButton = new TextButton("Hair Color: " + currentHairColor, skin, Constants.Font.BUTTON);
+        hairColorButton = new TextButton("", skin, Constants.Font.BUTTON);
         hairColorButton.addListener(new ChangeListener() {
             @Override
             public void changed(ChangeEvent event, Actor actor) {
@@ -82,13 +77,24 @@ public class ConfigurationScreen extends BaseScreen {
             }
         });
 
-        coinColorButton = new TextButton("Coin Color: " + (isYellowCoin ? "Yellow" : "Red"), skin, Constants.Font.BUTTON);
+        coinColorButton = new TextButton("", skin, Constants.Font.BUTTON);
         coinColorButton.addListener(new ChangeListener() {
             @Override
             public void changed(ChangeEvent event, Actor actor) {
-                isYellowCoin = !isYellowCoin;
-                coinColorButton.setText("Coin Color: " + (isYellowCoin ? "Yellow" : "Red"));
-                configManager.setPreference("coinColor", isYellowCoin);
+                currentCoinVariant = currentCoinVariant.next();
+                coinColorButton.setText("Coin Color: " + currentCoinVariant);
+                configManager.setPreference("coinVariant", currentCoinVariant.toString());
+            }
+        });
+
+        trailModeButton = new TextButton("", skin, Constants.Font.BUTTON);
+        trailModeButton.addListener(new ChangeListener() {
+            @Override
+            public void changed(ChangeEvent event, Actor actor) {
+                currentTrailMode = currentTrailMode.next();
+                trailModeButton.setText("Trail: " + currentTrailMode);
+                TrailDot.setMode(currentTrailMode);
+                configManager.setPreference("trailMode", currentTrailMode.toString());
             }
         });
 
@@ -100,28 +106,44 @@ public class ConfigurationScreen extends BaseScreen {
         table.add(volumeSlider).width(Constants.UIButtons.SLIDER_WIDTH).padBottom(Constants.UIButtons.PADDING).row();
         table.add(hairColorButton).width(Constants.UIButtons.CONTROL_BUTTON_WIDTH).height(Constants.UIButtons.CONTROL_BUTTON_HEIGHT).padBottom(Constants.UIButtons.PADDING).row();
         table.add(coinColorButton).width(Constants.UIButtons.CONTROL_BUTTON_WIDTH).height(Constants.UIButtons.CONTROL_BUTTON_HEIGHT).padBottom(Constants.UIButtons.PADDING).row();
+        table.add(trailModeButton).width(Constants.UIButtons.CONTROL_BUTTON_WIDTH).height(Constants.UIButtons.CONTROL_BUTTON_HEIGHT).padBottom(Constants.UIButtons.PADDING).row();
         table.add(backButton).width(Constants.UIButtons.BACK_BUTTON_WIDTH).height(Constants.UIButtons.CONTROL_BUTTON_HEIGHT).padTop(Constants.UIButtons.PADDING);
 
         stage.addActor(table);
+        loadPreferences();
 
         viewport.update(Gdx.graphics.getWidth(), Gdx.graphics.getHeight(), true);
 
-        InputMultiplexer multiplexer = new InputMultiplexer();
-        multiplexer.addProcessor(stage);
-        Gdx.input.setInputProcessor(multiplexer);
+        inputMultiplexer.addProcessor(stage);
+    }
+
+    @Override
+    public void show() {
+        boolean reused = isBuilt();
+        super.show();
+        // Other screens may have changed the preferences since this one was built
+        if (reused) {
+            loadPreferences();
+        }
+    }
+
+    private void loadPreferences() {
+        currentHairColor = HairColor.valueOf(configManager.getPreference("hairColor", HairColor.BLONDE.toString()));
+        currentCoinVariant = CoinVariant.valueOf(configManager.getPreference("coinVariant", CoinVariant.YELLOW.toString()));
+        currentTrailMode = TrailMode.valueOf(configManager.getPreference("trailMode", TrailMode.BAKED.toString()));
+
+        volumeSlider.setValue(configManager.getPreference("volume", Constants.Audio.DEFAULT_VOLUME));
+        hairColorButton.setText("Hair Color: " + currentHairColor);
+        coinColorButton.setText("Coin Color: " + currentCoinVariant);
+        trailModeButton.setText("Trail: " + currentTrailMode);
     }
 
     @Override
     public void render(float delta) {
         super.render(delta);
 
-        viewport.apply();
-        batch.setProjectionMatrix(viewport.getCamera().combined);
-
         stage.act(delta);
-        stage.draw();
-
-        TrailDot.renderTrail(delta, batch, viewport);
+        renderService.drawStage(stage);
     }
 
     @Override
@@ -131,6 +153,7 @@ public class ConfigurationScreen extends BaseScreen {
 
     @Override
     public void dispose() {
+        stage.dispose();
         super.dispose();
     }
 }
@@ -0,0 +1,65 @@
+package com.kandclay.screens;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import com.badlogic.gdx.utils.viewport.ScreenViewport;
+import com.badlogic.gdx.utils.viewport.Viewport;
+import com.kandclay.handlers.SpineAnimationHandler;
+import com.kandclay.managers.ScreenManager;
+import com.kandclay.utils.Constants;
+import com.kandclay.utils.ScreenType;
+
+/**
+ * Shown while the assets of another screen load. It needs no assets itself, so it can be drawn on the
+ * very first frame. Loading is spread over frames with a fixed time budget and the screen being opened
+ * is switched to as soon as its own assets are in, whatever is still queued in the background.
+ */
+public class LoadingScreen extends BaseScreen {
+    private Viewport viewport;
+    private ScreenType target;
+
+    public LoadingScreen(SpineAnimationHandler spineAnimationHandler, ScreenManager screenManager) {
+        super(spineAnimationHandler, screenManager);
+    }
+
+    @Override
+    protected void build() {
+        viewport = new ScreenViewport(new OrthographicCamera());
+        shapeRenderer = new ShapeRenderer();
+    }
+
+    public void setTarget(ScreenType target) {
+        this.target = target;
+    }
+
+    @Override
+    public void render(float delta) {
+        super.render(delta);
+        boolean loaded = assetManager.update(Constants.Loading.FRAME_BUDGET_MS, Constants.Loading.PRIORITY_SCREEN);
+
+        float width = viewport.getWorldWidth() * Constants.Loading.BAR_WIDTH_PERCENTAGE;
+        float height = Constants.Loading.BAR_HEIGHT;
+        float x = (viewport.getWorldWidth() - width) / 2;
+        float y = (viewport.getWorldHeight() - height) / 2;
+        float progress = target != null ? assetManager.getProgress(target) : 1f;
+
+        renderService.apply(viewport);
+        shapeRenderer.setProjectionMatrix(viewport.getCamera().combined);
+        shapeRenderer.begin(ShapeRenderer.ShapeType.Filled);
+        shapeRenderer.setColor(Color.DARK_GRAY);
+        shapeRenderer.rect(x, y, width, height);
+        shapeRenderer.setColor(Color.WHITE);
+        shapeRenderer.rect(x, y, width * progress, height);
+        shapeRenderer.end();
+
+        if (loaded && target != null) {
+            screenManager.setScreen(target);
+        }
+    }
+
+    @Override
+    public void resize(int width, int height) {
+        viewport.update(width, height, true);
+    }
+}
@@ -1,15 +1,12 @@
 package com.kandclay.screens;
 
 import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.InputMultiplexer;
 import com.badlogic.gdx.graphics.Camera;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.graphics.Texture;
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
-import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.scenes.scene2d.Actor;
 import com.badlogic.gdx.scenes.scene2d.InputEvent;
 import com.badlogic.gdx.scenes.scene2d.InputListener;
@@ -19,64 +16,113 @@ import com.badlogic.gdx.scenes.scene2d.ui.Slider;
 import com.badlogic.gdx.scenes.scene2d.ui.Table;
 import com.badlogic.gdx.scenes.scene2d.ui.TextButton;
 import com.badlogic.gdx.scenes.scene2d.utils.ChangeListener;
+import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.viewport.ExtendViewport;
-import com.badlogic.gdx.utils.viewport.FitViewport;
 import com.badlogic.gdx.utils.viewport.Viewport;
 import com.esotericsoftware.spine.*;
+import com.esotericsoftware.spine.utils.TwoColorPolygonBatch;
 
 import com.kandclay.handlers.SpineAnimationHandler;
+import com.kandclay.utils.AnimationRegistry;
+import com.kandclay.utils.CoinVariant;
 import com.kandclay.utils.Constants;
+import com.kandclay.utils.HitRegionIndex;
+import com.kandclay.utils.ScrubCache;
+import com.kandclay.utils.SimulationClock;
 import com.kandclay.managers.*;
 import com.kandclay.utils.ScreenType;
-import com.kandclay.utils.TrailDot;
-
-import java.util.HashMap;
 
 public class MainAnimationScreen extends BaseScreen {
 
-    private boolean isYellowCoin;
+    private CoinVariant coinVariant;
+    // The coin slots tinted by the current variant, and their colours
+    private final Array<Slot> coinTintSlots = new Array<Slot>();
+    private final Array<Color> coinTintColors = new Array<Color>();
     private boolean isLooping = true;
     private float speedMultiplier = 1f;
     private float lastSliderValue = 0f;
+    // Sampled coin poses the slider scrubs through in manual mode
+    private ScrubCache coinScrub;
 
-    private SpriteBatch batch;
     private Camera camera;
     private Viewport viewport;
     private Stage stage;
 
+    // The background, the skeletons and the UI all share the one viewport, so they draw in one pass
     private TextureRegion backgroundTexture;
-    private Viewport backgroundViewport;
-
-    private Viewport uiViewport;
 
     private enum AnimationType {
         COIN, BUTTON
     }
 
+    private enum CoinAnimation implements AnimationRegistry.Id {
+        SPIN("animation");
+
+        private final String animationName;
+
+        CoinAnimation(String animationName) {
+            this.animationName = animationName;
+        }
+
+        @Override
+        public String getAnimationName() {
+            return animationName;
+        }
+    }
+
+    private enum ButtonAnimation implements AnimationRegistry.Id {
+        HOVER_IN_1X("1x/hoverIn"), HOVER_IN_2X("2x/hoverIn"), HOVER_IN_3X("3x/hoverIn"),
+        HOVER_OUT_1X("1x/hoverOut"), HOVER_OUT_2X("2x/hoverOut"), HOVER_OUT_3X("3x/hoverOut"),
+        PRESSED_1X("1x/pressed"), PRESSED_2X("2x/pressed"), PRESSED_3X("3x/pressed");
+
+        private final String animationName;
+
+        ButtonAnimation(String animationName) {
+            this.animationName = animationName;
+        }
+
+        @Override
+        public String getAnimationName() {
+            return animationName;
+        }
+    }
+
+    // Speed buttons in hit region order: the background slot of each button, its animations and speed
+    private static final String[] BUTTON_SLOTS = {
+        "bg-" + Constants.MainAnimationScreen.BUTTON_1X_NAME, "bg-" + Constants.MainAnimationScreen.BUTTON_2X_NAME,
+        "bg-" + Constants.MainAnimationScreen.BUTTON_3X__NAME
+    };
+    private static final ButtonAnimation[] HOVER_IN_ANIMATIONS = {
+        ButtonAnimation.HOVER_IN_1X, ButtonAnimation.HOVER_IN_2X, ButtonAnimation.HOVER_IN_3X
+    };
+    private static final ButtonAnimation[] HOVER_OUT_ANIMATIONS = {
+        ButtonAnimation.HOVER_OUT_1X, ButtonAnimation.HOVER_OUT_2X, ButtonAnimation.HOVER_OUT_3X
+    };
+    private static final ButtonAnimation[] PRESS_ANIMATIONS = {
+        ButtonAnimation.PRESSED_1X, ButtonAnimation.PRESSED_2X, ButtonAnimation.PRESSED_3X
+    };
+    private static final float[] SPEEDS = {1f, 2f, 3f};
+
+    private HitRegionIndex buttonRegions;
+    private AnimationRegistry<CoinAnimation> coinAnimations;
+    private AnimationRegistry<ButtonAnimation> buttonAnimations;
+
     public MainAnimationScreen(SpineAnimationHandler spineAnimationHandler, ScreenManager screenManager) {
         super(spineAnimationHandler, screenManager);
         this.spineAnimationHandler = spineAnimationHandler;
     }
 
     @Override
-    public void show() {
-
+    protected void build() {
         camera = new OrthographicCamera();
         viewport = new ExtendViewport(Constants.General.EMBED_WIDTH, Constants.General.EMBED_HEIGHT, camera);
-        stage = new Stage(viewport);
-        batch = new SpriteBatch();
+        stage = new Stage(viewport, renderService.getBatch());
 
-        skeletonRenderer = new SkeletonRenderer();
-        skeletonRenderer.setPremultipliedAlpha(true);
         Texture texture = assetManager.get(Constants.Background.PATH, Texture.class);
         backgroundTexture = new TextureRegion(texture);
-        backgroundViewport = new ExtendViewport(Constants.General.EMBED_WIDTH, Constants.General.EMBED_HEIGHT);
-
-        uiViewport = new ExtendViewport(Constants.General.EMBED_WIDTH, Constants.General.EMBED_HEIGHT);
 
         shapeRenderer = new ShapeRenderer();
 
-        isYellowCoin = configManager.getPreference("coinColor", true);
         initializeCoinAnimations();
         initializeButtonAnimations();
 
@@ -114,7 +160,7 @@ public class MainAnimationScreen extends BaseScreen {
                 System.out.println("Mode changed to: " + (isLooping ? "Automatic" : "Manual"));
                 if (isLooping) {
                     modeButton.setText("Switch to Manual Mode");
-                    states.get(AnimationType.COIN.ordinal()).setAnimation(0, "animation", true);
+                    coinAnimations.setAnimation(states.get(AnimationType.COIN.ordinal()), 0, CoinAnimation.SPIN, true);
                 } else {
                     modeButton.setText("Switch to Automatic Mode");
                 }
@@ -161,11 +207,6 @@ public class MainAnimationScreen extends BaseScreen {
         stage.addActor(backButtonTable);
         stage.addActor(topTable);
 
-        hoverStates = new HashMap<String, Boolean>();
-        hoverStates.put(Constants.MainAnimationScreen.BUTTON_1X_NAME, false);
-        hoverStates.put(Constants.MainAnimationScreen.BUTTON_2X_NAME, false);
-        hoverStates.put(Constants.MainAnimationScreen.BUTTON_3X__NAME, false);
-
         stage.addListener(new InputListener() {
             @Override
             public boolean mouseMoved(InputEvent event, float x, float y) {
@@ -180,35 +221,78 @@ public class MainAnimationScreen extends BaseScreen {
             }
         });
 
-        InputMultiplexer multiplexer = new InputMultiplexer();
-        multiplexer.addProcessor(stage);
-        Gdx.input.setInputProcessor(multiplexer);
+        inputMultiplexer.addProcessor(stage);
+    }
+
+    @Override
+    public void show() {
+        super.show();
+        // The coin variant may have been changed on the settings screen while this screen was cached
+        setCoinVariant(CoinVariant.valueOf(configManager.getPreference("coinVariant", CoinVariant.YELLOW.toString())));
+    }
+
+    // In manual mode the coin only moves while the slider is dragged, which is input
+    @Override
+    public boolean isAnimating() {
+        return (isLooping && isPlaying(states.get(AnimationType.COIN.ordinal())))
+            || isPlaying(states.get(AnimationType.BUTTON.ordinal())) || hasLiveTrails();
     }
 
     private void swapCoinColor() {
-        float currentStateTime = states.get(AnimationType.COIN.ordinal()).getCurrent(0).getTrackTime();
-        isYellowCoin = !isYellowCoin;
-        configManager.setPreference("coinColor", isYellowCoin);
-        swapCoinAnimation(currentStateTime);
+        setCoinVariant(coinVariant.next());
+        configManager.setPreference("coinVariant", coinVariant.toString());
     }
 
-    private void configureCoinAnimation(float stateTime, boolean isAddOperation) {
-        String atlasPath = isYellowCoin ? Constants.MainAnimationScreen.YellowCoin.ATLAS : Constants.MainAnimationScreen.RedCoin.ATLAS;
-        String skeletonPath = isYellowCoin ? Constants.MainAnimationScreen.YellowCoin.JSON : Constants.MainAnimationScreen.RedCoin.JSON;
+    /**
+     * Switches the coin to another colour variant in place: the skeleton, its animation and the track time
+     * are kept, only the slots the variant tints change.
+     */
+    private void setCoinVariant(CoinVariant variant) {
+        if (variant == coinVariant) {
+            return;
+        }
+        // Slots tinted by the previous variant go back to their setup colour
+        for (int i = 0; i < coinTintSlots.size; i++) {
+            Slot slot = coinTintSlots.get(i);
+            slot.getColor().set(slot.getData().getColor());
+        }
+        coinTintSlots.clear();
+        coinTintColors.clear();
+
+        Skeleton coin = skeletons.get(AnimationType.COIN.ordinal());
+        for (int i = 0; i < variant.getSlotCount(); i++) {
+            Slot slot = coin.findSlot(variant.getSlotName(i));
+            if (slot != null) {
+                coinTintSlots.add(slot);
+                coinTintColors.add(variant.getColor(i));
+            }
+        }
+        coinVariant = variant;
+        invalidatePose(AnimationType.COIN.ordinal());
+    }
 
-        if (isAddOperation) {
-            skeletons.insert(AnimationType.COIN.ordinal(), spineAnimationHandler.createSkeleton(atlasPath, skeletonPath));
-            states.insert(AnimationType.COIN.ordinal(), spineAnimationHandler.createAnimationState(skeletons.get(AnimationType.COIN.ordinal())));
-        } else {
-            skeletons.set(AnimationType.COIN.ordinal(), spineAnimationHandler.createSkeleton(atlasPath, skeletonPath));
-            states.set(AnimationType.COIN.ordinal(), spineAnimationHandler.createAnimationState(skeletons.get(AnimationType.COIN.ordinal())));
+    // Applied after the animation so the variant wins over any colour keyed in the animation
+    private void applyCoinVariant() {
+        for (int i = 0; i < coinTintSlots.size; i++) {
+            coinTintSlots.get(i).getColor().set(coinTintColors.get(i));
         }
+    }
+
+    private void initializeCoinAnimations() {
+        String atlasPath = Constants.MainAnimationScreen.Coin.ATLAS;
+        String skeletonPath = Constants.MainAnimationScreen.Coin.SKEL;
+
+        skeletons.insert(AnimationType.COIN.ordinal(), spineAnimationHandler.createSkeleton(atlasPath, skeletonPath));
+        states.insert(AnimationType.COIN.ordinal(), spineAnimationHandler.createAnimationState(skeletons.get(AnimationType.COIN.ordinal())));
+        coinAnimations = new AnimationRegistry<CoinAnimation>(skeletons.get(AnimationType.COIN.ordinal()).getData(),
+            CoinAnimation.values());
+        coinScrub = new ScrubCache(skeletons.get(AnimationType.COIN.ordinal()).getData(),
+            Constants.Scrub.SAMPLE_RATE, Constants.Scrub.MAX_BYTES);
 
         setSkeletonScale(skeletons.get(AnimationType.COIN.ordinal()), Constants.MainAnimationScreen.COIN_WIDTH_PERCENTAGE, Constants.MainAnimationScreen.COIN_HEIGHT_PERCENTAGE, viewport);
         setSkeletonPosition(skeletons.get(AnimationType.COIN.ordinal()), viewport.getWorldWidth() / 2, viewport.getWorldHeight() / 2);
 
-        states.get(AnimationType.COIN.ordinal()).setAnimation(0, "animation", true);
-        states.get(AnimationType.COIN.ordinal()).getCurrent(0).setTrackTime(stateTime);
+        coinAnimations.setAnimation(states.get(AnimationType.COIN.ordinal()), 0, CoinAnimation.SPIN, true);
         states.get(AnimationType.COIN.ordinal()).addListener(new AnimationState.AnimationStateAdapter() {
             @Override
             public void complete(AnimationState.TrackEntry entry) {
@@ -217,32 +301,43 @@ public class MainAnimationScreen extends BaseScreen {
         });
     }
 
-    private void initializeCoinAnimations() {
-        configureCoinAnimation((float) 0.0, true);
-    }
-
-    private void swapCoinAnimation(float stateTime) {
-        configureCoinAnimation(stateTime, false);
-    }
-
-
     private void initializeButtonAnimations() {
         String atlasPath = Constants.MainAnimationScreen.ATLAS;
-        String skeletonPath = Constants.MainAnimationScreen.JSON;
+        String skeletonPath = Constants.MainAnimationScreen.SKEL;
 
         skeletons.insert(AnimationType.BUTTON.ordinal(), spineAnimationHandler.createSkeleton(atlasPath, skeletonPath));
         states.insert(AnimationType.BUTTON.ordinal(), spineAnimationHandler.createAnimationState(skeletons.get(AnimationType.BUTTON.ordinal())));
+        buttonRegions = new HitRegionIndex(skeletons.get(AnimationType.BUTTON.ordinal()), BUTTON_SLOTS);
+        buttonAnimations = new AnimationRegistry<ButtonAnimation>(skeletons.get(AnimationType.BUTTON.ordinal()).getData(),
+            ButtonAnimation.values());
+
+        // The one listener of the buttons: a finished press sets its button's speed
+        states.get(AnimationType.BUTTON.ordinal()).addListener(new AnimationState.AnimationStateAdapter() {
+            @Override
+            public void complete(AnimationState.TrackEntry entry) {
+                ButtonAnimation animation = buttonAnimations.getId(entry.getAnimation());
+                for (int button = 0; button < PRESS_ANIMATIONS.length; button++) {
+                    if (PRESS_ANIMATIONS[button] == animation) {
+                        Gdx.app.log("MainAnimationScreen", "Animation complete: " + animation.getAnimationName());
+                        speedMultiplier = SPEEDS[button];
+                    }
+                }
+            }
+        });
 
         setSkeletonScale(skeletons.get(AnimationType.BUTTON.ordinal()), Constants.MainAnimationScreen.BUTTONS_WIDTH_PERCENTAGE, Constants.MainAnimationScreen.BUTTONS_HEIGHT_PERCENTAGE, viewport);
         setSkeletonPosition(skeletons.get(AnimationType.BUTTON.ordinal()), 0, viewport.getWorldHeight());
 
-        playButtonPressAnimation("1x/pressed", 1f);
+        playButtonPressAnimation(ButtonAnimation.PRESSED_1X);
     }
 
+    // Each button hovers on its own track, 1 to 3
     private void handleHover(float x, float y) {
-        updateHoverState(x, y, Constants.MainAnimationScreen.BUTTON_1X_NAME, AnimationType.BUTTON.ordinal(), 1, "1x/hoverIn", "1x/hoverOut");
-        updateHoverState(x, y, Constants.MainAnimationScreen.BUTTON_2X_NAME, AnimationType.BUTTON.ordinal(), 2, "2x/hoverIn", "2x/hoverOut");
-        updateHoverState(x, y, Constants.MainAnimationScreen.BUTTON_3X__NAME, AnimationType.BUTTON.ordinal(), 3, "3x/hoverIn", "3x/hoverOut");
+        buttonRegions.setSkeleton(getPose(AnimationType.BUTTON.ordinal()));
+        for (int button = 0; button < BUTTON_SLOTS.length; button++) {
+            updateHoverState(x, y, buttonRegions, button, states.get(AnimationType.BUTTON.ordinal()), button + 1,
+                buttonAnimations.get(HOVER_IN_ANIMATIONS[button]), buttonAnimations.get(HOVER_OUT_ANIMATIONS[button]));
+        }
     }
 
     private void swapSkins() {
@@ -252,115 +347,89 @@ public class MainAnimationScreen extends BaseScreen {
     }
 
     private void handleClick(float x, float y) {
-        if (isHoveringButton(x, y, Constants.MainAnimationScreen.BUTTON_1X_NAME, AnimationType.BUTTON.ordinal())) {
-            playButtonPressAnimation("1x/pressed", 1f);
-        } else if (isHoveringButton(x, y, Constants.MainAnimationScreen.BUTTON_2X_NAME, AnimationType.BUTTON.ordinal())) {
-            playButtonPressAnimation("2x/pressed", 2f);
-        } else if (isHoveringButton(x, y, Constants.MainAnimationScreen.BUTTON_3X__NAME, AnimationType.BUTTON.ordinal())) {
-            playButtonPressAnimation("3x/pressed", 3f);
+        buttonRegions.setSkeleton(getPose(AnimationType.BUTTON.ordinal()));
+        int button = buttonRegions.hit(x, y);
+        if (button != -1) {
+            playButtonPressAnimation(PRESS_ANIMATIONS[button]);
         }
     }
 
-    private void playButtonPressAnimation(final String animationName, final float speed) {
-        Gdx.app.log("MainAnimationScreen", "Playing button press animation: " + animationName);
-        states.get(AnimationType.BUTTON.ordinal()).setAnimation(4, animationName, false).setListener(new AnimationState.AnimationStateListener() {
-            @Override
-            public void start(AnimationState.TrackEntry entry) {
-            }
-
-            @Override
-            public void interrupt(AnimationState.TrackEntry entry) {
-            }
-
-            @Override
-            public void end(AnimationState.TrackEntry entry) {
-            }
+    private void playButtonPressAnimation(ButtonAnimation animation) {
+        Gdx.app.log("MainAnimationScreen", "Playing button press animation: " + animation.getAnimationName());
+        buttonAnimations.setAnimation(states.get(AnimationType.BUTTON.ordinal()), 4, animation, false);
+    }
 
-            @Override
-            public void dispose(AnimationState.TrackEntry entry) {
-            }
+    @Override
+    public void update(float step) {
+        super.update(step);
+        if (isLooping) {
+            states.get(AnimationType.COIN.ordinal()).update(step * speedMultiplier);
+        }
+        states.get(AnimationType.BUTTON.ordinal()).update(step);
+    }
 
-            @Override
-            public void complete(AnimationState.TrackEntry entry) {
-                Gdx.app.log("MainAnimationScreen", "Animation complete: " + animationName);
-                speedMultiplier = speed;
+    @Override
+    public void pose(float ahead) {
+        // In manual mode the slider sets the coin's track time, so there is nothing to pose ahead
+        float coinAhead = isLooping ? ahead * speedMultiplier : 0;
+        if (needsPose(AnimationType.COIN.ordinal(), coinAhead)) {
+            if (isLooping || !scrubCoin()) {
+                SimulationClock.applyAhead(states.get(AnimationType.COIN.ordinal()), skeletons.get(AnimationType.COIN.ordinal()), coinAhead);
             }
+            applyCoinVariant();
+            skeletons.get(AnimationType.COIN.ordinal()).updateWorldTransform();
+        }
 
-            @Override
-            public void event(AnimationState.TrackEntry entry, Event event) {
-            }
-        });
+        // Idle buttons keep their pose
+        if (needsPose(AnimationType.BUTTON.ordinal(), ahead)) {
+            SimulationClock.applyAhead(states.get(AnimationType.BUTTON.ordinal()), skeletons.get(AnimationType.BUTTON.ordinal()), ahead);
+            skeletons.get(AnimationType.BUTTON.ordinal()).updateWorldTransform();
+        }
     }
 
-    @Override
-    protected Rectangle getButtonBounds(String buttonName, int pos) {
-        String bgSlotName = "bg-" + buttonName;
-        return getRectangle(buttonName, bgSlotName, skeletons.get(pos));
+    // Poses the coin from its sampled poses, at the same cost wherever the slider is
+    private boolean scrubCoin() {
+        AnimationState.TrackEntry entry = states.get(AnimationType.COIN.ordinal()).getCurrent(0);
+        if (coinScrub == null || entry == null || entry.getMixingFrom() != null) {
+            return false;
+        }
+        return coinScrub.apply(entry.getAnimation(), entry.getAnimationTime(), skeletons.get(AnimationType.COIN.ordinal()));
     }
 
     @Override
     public void render(float delta) {
         clearScreen();
 
-        if (isLooping) {
-            states.get(AnimationType.COIN.ordinal()).update(delta * speedMultiplier);
-        }
-
-        states.get(AnimationType.COIN.ordinal()).apply(skeletons.get(AnimationType.COIN.ordinal()));
-        skeletons.get(AnimationType.COIN.ordinal()).updateWorldTransform();
-
-        states.get(AnimationType.BUTTON.ordinal()).update(delta);
-        states.get(AnimationType.BUTTON.ordinal()).apply(skeletons.get(AnimationType.BUTTON.ordinal()));
-        skeletons.get(AnimationType.BUTTON.ordinal()).updateWorldTransform();
-
         // Render background
-        backgroundViewport.apply();
-        batch.setProjectionMatrix(backgroundViewport.getCamera().combined);
-        batch.begin();
-        batch.draw(backgroundTexture, 0, 0, backgroundViewport.getWorldWidth(), backgroundViewport.getWorldHeight());
-        batch.end();
+        TwoColorPolygonBatch batch = renderService.begin(viewport);
+        batch.draw(backgroundTexture, 0, 0, viewport.getWorldWidth(), viewport.getWorldHeight());
 
         // Render content
-        viewport.apply();
-        batch.setProjectionMatrix(camera.combined);
-        batch.begin();
-        skeletonRenderer.draw(batch, skeletons.get(AnimationType.COIN.ordinal()));
-        skeletonRenderer.draw(batch, skeletons.get(AnimationType.BUTTON.ordinal()));
-        batch.end();
-
-        uiViewport.apply();
-        batch.setProjectionMatrix(uiViewport.getCamera().combined);
-        batch.begin();
+        drawSkeleton(batch, AnimationType.COIN.ordinal(), viewport);
+        drawSkeleton(batch, AnimationType.BUTTON.ordinal(), viewport);
+
         stage.act(delta);
-        stage.draw();
-        batch.end();
+        renderService.drawStage(stage);
 
-        TrailDot.renderTrail(delta, batch, viewport);
+        renderTrail(viewport);
 
         // Render debug bounds
         // renderDebug();
     }
 
     private void renderDebug() {
+        renderService.end();
         shapeRenderer.setProjectionMatrix(camera.combined);
         shapeRenderer.begin(ShapeRenderer.ShapeType.Line);
         shapeRenderer.setColor(Color.RED);
-        drawDebugBounds(Constants.MainAnimationScreen.BUTTON_1X_NAME);
-        drawDebugBounds(Constants.MainAnimationScreen.BUTTON_2X_NAME);
-        drawDebugBounds(Constants.MainAnimationScreen.BUTTON_3X__NAME);
+        buttonRegions.setSkeleton(getPose(AnimationType.BUTTON.ordinal()));
+        drawHitRegions(buttonRegions);
         shapeRenderer.end();
     }
 
-    private void drawDebugBounds(String buttonName) {
-        Rectangle bounds = getButtonBounds(buttonName, AnimationType.BUTTON.ordinal());
-        shapeRenderer.rect(bounds.x, bounds.y, bounds.width, bounds.height);
-    }
-
     @Override
     public void resize(int width, int height) {
         viewport.update(width, height, true);
-        backgroundViewport.update(width, height, true);
-        uiViewport.update(width, height, true);
 
         setSkeletonScale(skeletons.get(AnimationType.COIN.ordinal()), Constants.MainAnimationScreen.COIN_WIDTH_PERCENTAGE, Constants.MainAnimationScreen.COIN_HEIGHT_PERCENTAGE, viewport);  // Adjust the percentages as needed
         setSkeletonPosition(skeletons.get(AnimationType.COIN.ordinal()), viewport.getWorldWidth() / 2, viewport.getWorldHeight() / 2);
@@ -371,6 +440,11 @@ public class MainAnimationScreen extends BaseScreen {
 
     @Override
     public void dispose() {
+        stage.dispose();
+        if (coinScrub != null) {
+            coinScrub.clear();
+            coinScrub = null;
+        }
         super.dispose();
     }
 }
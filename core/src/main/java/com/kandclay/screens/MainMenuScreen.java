@@ -1,55 +1,115 @@
 package com.kandclay.screens;
 
 import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.InputMultiplexer;
 import com.badlogic.gdx.graphics.*;
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.FrameBuffer;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
-import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.scenes.scene2d.InputEvent;
 import com.badlogic.gdx.scenes.scene2d.InputListener;
 import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.utils.viewport.*;
 import com.esotericsoftware.spine.*;
+import com.esotericsoftware.spine.utils.TwoColorPolygonBatch;
 import com.kandclay.handlers.SpineAnimationHandler;
 import com.kandclay.managers.ScreenManager;
+import com.kandclay.utils.AnimationRegistry;
 import com.kandclay.utils.Constants;
+import com.kandclay.utils.HitRegionIndex;
+import com.kandclay.utils.PoseSnapshot;
+import com.kandclay.utils.SimulationClock;
 import com.kandclay.utils.ScreenType;
-import com.kandclay.utils.TrailDot;
-
-import java.util.HashMap;
 
 public class MainMenuScreen extends BaseScreen {
 
     private boolean isInitialAnimationFinished = false;
     private final boolean debugMode = false;
 
-    private Viewport backgroundViewport;
-
-    private SpriteBatch batch;
     private Camera camera;
     private Viewport viewport;
     private Stage stage;
 
-    private Camera minimapCamera;
+    // The minimap shows the main skeleton from an off-screen copy that is only redrawn now and then
+    private OrthographicCamera minimapCamera;
     private Viewport minimapViewport;
     private Stage minimapStage;
+    private FrameBuffer minimapBuffer;
+    private TextureRegion minimapFrame;
+    private final PoseSnapshot minimapPose = new PoseSnapshot();
+    private float minimapAge = Float.MAX_VALUE;
 
+    // Drawn with the main viewport, in the same pass as the menu
     private TextureRegion backgroundTexture;
     private TextureRegion minimapRegion;
 
     private enum AnimationType {
-        MENU_1, MENU_2
+        MENU
+    }
+
+    private enum MenuAnimation implements AnimationRegistry.Id {
+        INTRO("animation"),
+        PLAY_HOVER_IN("Buttons/PlayHoverIn"), QUIT_HOVER_IN("Buttons/QuitHoverIn"), SETTINGS_HOVER_IN("Buttons/SettingsHoverIn"),
+        PLAY_HOVER_OUT("Buttons/PlayHoverOut"), QUIT_HOVER_OUT("Buttons/QuitHoverOut"), SETTINGS_HOVER_OUT("Buttons/SettingsHoverOut"),
+        PLAY_PRESS("Buttons/PlayPress"), QUIT_PRESS("Buttons/QuitPress"), SETTINGS_PRESS("Buttons/SettingsPress");
+
+        private final String animationName;
+
+        MenuAnimation(String animationName) {
+            this.animationName = animationName;
+        }
+
+        @Override
+        public String getAnimationName() {
+            return animationName;
+        }
     }
 
+    // Buttons in hit region order: the slot of each button and its animations
+    private static final String[] BUTTON_SLOTS = {
+        Constants.MainMenuScreen.BUTTON_PLAY_NAME, Constants.MainMenuScreen.BUTTON_QUIT_NAME, Constants.MainMenuScreen.BUTTON_STGS_NAME
+    };
+    private static final MenuAnimation[] HOVER_IN_ANIMATIONS = {
+        MenuAnimation.PLAY_HOVER_IN, MenuAnimation.QUIT_HOVER_IN, MenuAnimation.SETTINGS_HOVER_IN
+    };
+    private static final MenuAnimation[] HOVER_OUT_ANIMATIONS = {
+        MenuAnimation.PLAY_HOVER_OUT, MenuAnimation.QUIT_HOVER_OUT, MenuAnimation.SETTINGS_HOVER_OUT
+    };
+    private static final MenuAnimation[] PRESS_ANIMATIONS = {
+        MenuAnimation.PLAY_PRESS, MenuAnimation.QUIT_PRESS, MenuAnimation.SETTINGS_PRESS
+    };
+
+    private HitRegionIndex buttonRegions;
+    private AnimationRegistry<MenuAnimation> animations;
+
+    // What a finished press leads to, run once the frame is over
+    private final Runnable openMain = new Runnable() {
+        @Override
+        public void run() {
+            Gdx.app.log("MainMenuScreen", "Changing screen to: MainMenuScreen");
+            screenManager.setScreen(ScreenType.MAIN);
+        }
+    };
+    private final Runnable openSettings = new Runnable() {
+        @Override
+        public void run() {
+            Gdx.app.log("MainMenuScreen", "Changing screen to: OptionsScreen");
+            screenManager.setScreen(ScreenType.STGS);
+        }
+    };
+    private final Runnable quit = new Runnable() {
+        @Override
+        public void run() {
+            Gdx.net.openURI("https://www.google.com");
+        }
+    };
+
     public MainMenuScreen(SpineAnimationHandler spineAnimationHandler, ScreenManager screenManager) {
         super(spineAnimationHandler, screenManager);
 
     }
 
     @Override
-    public void show() {
+    protected void build() {
         initializeCommonComponents();
         initializeBackground();
         initializeMainContent();
@@ -57,103 +117,119 @@ public class MainMenuScreen extends BaseScreen {
         setupInputProcessing();
     }
 
+    @Override
+    public void show() {
+        boolean reused = isBuilt();
+        super.show();
+        if (reused) {
+            resetButtons();
+        }
+    }
+
+    // Drop the hover and press animations left over from the last visit; the intro stays finished
+    private void resetButtons() {
+        for (int track = 1; track <= 4; track++) {
+            states.get(AnimationType.MENU.ordinal()).clearTrack(track);
+        }
+        skeletons.get(AnimationType.MENU.ordinal()).setToSetupPose();
+        invalidatePose(AnimationType.MENU.ordinal());
+        buttonRegions.clearHover();
+    }
+
     private void initializeCommonComponents() {
-        batch = new SpriteBatch();
-        skeletonRenderer = new SkeletonRenderer();
-        skeletonRenderer.setPremultipliedAlpha(true);
         shapeRenderer = new ShapeRenderer();
-
-        hoverStates = new HashMap<String, Boolean>();
-        hoverStates.put(Constants.MainMenuScreen.BUTTON_PLAY_NAME, false);
-        hoverStates.put(Constants.MainMenuScreen.BUTTON_QUIT_NAME, false);
-        hoverStates.put(Constants.MainMenuScreen.BUTTON_STGS_NAME, false);
     }
 
     private void initializeBackground() {
         Texture texture = assetManager.get(Constants.Background.PATH, Texture.class);
         backgroundTexture = new TextureRegion(texture);
-        backgroundViewport = new ExtendViewport(Constants.General.EMBED_WIDTH, Constants.General.EMBED_HEIGHT);
     }
 
     private void initializeMainContent() {
         camera = new OrthographicCamera();
         viewport = new ExtendViewport(Constants.General.EMBED_WIDTH, Constants.General.EMBED_HEIGHT, camera);
-        stage = new Stage(viewport);
+        stage = new Stage(viewport, renderService.getBatch());
         initializeAnimations();
-        setUpStage(stage, viewport, AnimationType.MENU_1.ordinal());
+        setUpStage(stage, viewport);
     }
 
+    /**
+     * The minimap camera looks at the main viewport's world, so input on the minimap stage arrives in the
+     * same coordinates as on the main stage and is hit-tested against the same skeleton.
+     */
     private void initializeMinimap() {
         Texture texture = assetManager.get(Constants.Minimap.PATH, Texture.class);
         minimapRegion = new TextureRegion(texture);
         minimapCamera = new OrthographicCamera();
-        minimapViewport = new FitViewport(minimapRegion.getRegionWidth(), minimapRegion.getRegionHeight(), minimapCamera);
-        minimapStage = new Stage(minimapViewport);
-        setUpStage(minimapStage, minimapViewport, AnimationType.MENU_2.ordinal());
+        minimapViewport = new FitViewport(Constants.Minimap.WIDTH, Constants.Minimap.HEIGHT, minimapCamera);
+        minimapStage = new Stage(minimapViewport, renderService.getBatch());
+        setUpStage(minimapStage, minimapViewport);
+
+        minimapBuffer = new FrameBuffer(Pixmap.Format.RGBA8888, Constants.Minimap.WIDTH, Constants.Minimap.HEIGHT, false);
+        minimapFrame = new TextureRegion(minimapBuffer.getColorBufferTexture());
+        minimapFrame.flip(false, true); // Frame buffer textures are upside down
     }
 
     private void setupInputProcessing() {
-        InputMultiplexer multiplexer = new InputMultiplexer();
         // Since the minimap is on top, it should be processed first
-        multiplexer.addProcessor(minimapStage);
-        multiplexer.addProcessor(stage);
-        Gdx.input.setInputProcessor(multiplexer);
+        inputMultiplexer.addProcessor(minimapStage);
+        inputMultiplexer.addProcessor(stage);
     }
 
-    private void setUpStage(Stage stage, Viewport viewport, final int skeletonIndex) {
-        stage.addListener(createStageInputListener(skeletonIndex));
+    private void setUpStage(Stage stage, Viewport viewport) {
+        stage.addListener(createStageInputListener());
         addTrailToStage(stage, viewport);
     }
 
-    private InputListener createStageInputListener(final int skeletonIndex) {
+    private InputListener createStageInputListener() {
         return new InputListener() {
             @Override
             public boolean mouseMoved(InputEvent event, float x, float y) {
                 if (isInitialAnimationFinished) {
-                    handleHover(x, y, skeletonIndex);
+                    handleHover(x, y);
                 }
                 return true;
             }
 
             @Override
             public boolean touchDown(InputEvent event, float x, float y, int pointer, int button) {
-                handleClick(x, y, skeletonIndex);
+                handleClick(x, y);
                 return true;
             }
         };
     }
 
-    private void handleHover(float x, float y, int skeletonIndex) {
-        updateHoverState(x, y, Constants.MainMenuScreen.BUTTON_PLAY_NAME, skeletonIndex, 1, "Buttons/PlayHoverIn", "Buttons/PlayHoverOut");
-        updateHoverState(x, y, Constants.MainMenuScreen.BUTTON_QUIT_NAME, skeletonIndex, 2, "Buttons/QuitHoverIn", "Buttons/QuitHoverOut");
-        updateHoverState(x, y, Constants.MainMenuScreen.BUTTON_STGS_NAME, skeletonIndex, 3, "Buttons/SettingsHoverIn", "Buttons/SettingsHoverOut");
+    // Each button hovers on its own track, 1 to 3
+    private void handleHover(float x, float y) {
+        buttonRegions.setSkeleton(getPose(AnimationType.MENU.ordinal()));
+        for (int button = 0; button < BUTTON_SLOTS.length; button++) {
+            updateHoverState(x, y, buttonRegions, button, states.get(AnimationType.MENU.ordinal()), button + 1,
+                animations.get(HOVER_IN_ANIMATIONS[button]), animations.get(HOVER_OUT_ANIMATIONS[button]));
+        }
     }
 
-    private void handleClick(float x, float y, int skeletonIndex) {
-        if (isHoveringButton(x, y, Constants.MainMenuScreen.BUTTON_PLAY_NAME, skeletonIndex)) {
-            playButtonPressAnimation("Buttons/PlayPress", skeletonIndex);
-        } else if (isHoveringButton(x, y, Constants.MainMenuScreen.BUTTON_QUIT_NAME, skeletonIndex)) {
-            playButtonPressAnimation("Buttons/QuitPress", skeletonIndex);
-        } else if (isHoveringButton(x, y, Constants.MainMenuScreen.BUTTON_STGS_NAME, skeletonIndex)) {
-            playButtonPressAnimation("Buttons/SettingsPress", skeletonIndex);
+    private void handleClick(float x, float y) {
+        buttonRegions.setSkeleton(getPose(AnimationType.MENU.ordinal()));
+        int button = buttonRegions.hit(x, y);
+        if (button != -1) {
+            playButtonPressAnimation(PRESS_ANIMATIONS[button]);
         }
     }
 
     private void initializeAnimations() {
-        initializeMenuSkeleton(AnimationType.MENU_1.ordinal());
-        initializeMenuSkeleton(AnimationType.MENU_2.ordinal());
-    }
-
-    private void initializeMenuSkeleton(int skeletonIndex) {
+        int skeletonIndex = AnimationType.MENU.ordinal();
 
         String atlasPath = Constants.MainMenuScreen.ATLAS;
-        String skeletonPath = Constants.MainMenuScreen.JSON;
+        String skeletonPath = Constants.MainMenuScreen.SKEL;
 
         skeletons.insert(skeletonIndex, spineAnimationHandler.createSkeleton(atlasPath, skeletonPath));
         states.insert(skeletonIndex, spineAnimationHandler.createAnimationState(skeletons.get(skeletonIndex)));
+        buttonRegions = new HitRegionIndex(skeletons.get(skeletonIndex), BUTTON_SLOTS);
+        animations = new AnimationRegistry<MenuAnimation>(skeletons.get(skeletonIndex).getData(), MenuAnimation.values());
 
-        states.get(skeletonIndex).setAnimation(0, "animation", false);
+        animations.setAnimation(states.get(skeletonIndex), 0, MenuAnimation.INTRO, false);
 
+        // The one listener of the menu: the intro and every press end here
         states.get(skeletonIndex).addListener(new AnimationState.AnimationStateListener() {
             @Override
             public void start(AnimationState.TrackEntry entry) {
@@ -173,8 +249,30 @@ public class MainMenuScreen extends BaseScreen {
 
             @Override
             public void complete(AnimationState.TrackEntry entry) {
-                if (entry.getAnimation().getName().equals("animation")) {
-                    isInitialAnimationFinished = true;
+                MenuAnimation animation = animations.getId(entry.getAnimation());
+                if (animation == null) {
+                    return;
+                }
+                switch (animation) {
+                    case INTRO:
+                        isInitialAnimationFinished = true;
+                        // Play is the most likely next step, so have its screen ready
+                        screenManager.prewarm(ScreenType.MAIN);
+                        break;
+                    case PLAY_PRESS:
+                        Gdx.app.log("MainMenuScreen", "Animation complete: " + animation.getAnimationName());
+                        Gdx.app.postRunnable(openMain);
+                        break;
+                    case SETTINGS_PRESS:
+                        Gdx.app.log("MainMenuScreen", "Animation complete: " + animation.getAnimationName());
+                        Gdx.app.postRunnable(openSettings);
+                        break;
+                    case QUIT_PRESS:
+                        Gdx.app.log("MainMenuScreen", "Animation complete: " + animation.getAnimationName());
+                        Gdx.app.postRunnable(quit);
+                        break;
+                    default:
+                        break;
                 }
             }
 
@@ -185,106 +283,81 @@ public class MainMenuScreen extends BaseScreen {
     }
 
     private void renderBackground() {
-        backgroundViewport.apply();
-        batch.setProjectionMatrix(backgroundViewport.getCamera().combined);
-        batch.begin();
-        batch.draw(backgroundTexture, 0, 0, backgroundViewport.getWorldWidth(), backgroundViewport.getWorldHeight());
-        batch.end();
+        renderService.begin(viewport).draw(backgroundTexture, 0, 0, viewport.getWorldWidth(), viewport.getWorldHeight());
     }
 
     private void renderMainContent(float delta) {
-        renderMenu(delta, batch, viewport, AnimationType.MENU_1.ordinal());
-        renderDebug(viewport, Color.RED, AnimationType.MENU_1.ordinal());
+        renderMenu();
+        renderDebug(viewport, Color.RED);
         stage.act(delta);
-        stage.draw();
-        TrailDot.renderTrail(delta, batch, viewport);
+        renderService.drawStage(stage);
+        renderTrail(viewport);
     }
 
-    private void renderMinimap(float delta) {
-        minimapViewport.apply();
-        batch.setProjectionMatrix(minimapViewport.getCamera().combined);
-        batch.begin();
-        batch.draw(minimapRegion, 0, 0);
-        batch.end();
-
-        renderMenu(delta, batch, minimapViewport, AnimationType.MENU_2.ordinal());
-        renderDebug(minimapViewport, Color.GREEN, AnimationType.MENU_2.ordinal());
-        minimapStage.act(delta);
-        minimapStage.draw();
-        TrailDot.renderTrail(delta, batch, minimapViewport);
+    // Runs before anything is drawn to the screen, so switching to the frame buffer never splits a pass
+    private void refreshMinimap(float delta) {
+        minimapAge += delta;
+        if (minimapAge >= 1f / Constants.Minimap.REFRESH_RATE) {
+            // A menu standing still needs no redraw at all
+            if (minimapPose.update(getPose(AnimationType.MENU.ordinal()))) {
+                drawMinimapFrame();
+            }
+            minimapAge = 0;
+        }
     }
 
-    private void renderMenu(float delta, SpriteBatch batch, Viewport viewport, int skeletonIndex) {
-        Skeleton skeleton = skeletons.get(skeletonIndex);
-        AnimationState state = states.get(skeletonIndex);
-
-        viewport.apply();
-        batch.setProjectionMatrix(viewport.getCamera().combined);
-        batch.begin();
-
-        state.update(delta);
-        state.apply(skeleton);
-        skeleton.updateWorldTransform();
-        updateSkeletonScaleAndPosition(viewport, skeletonIndex);
-
-        skeletonRenderer.draw(batch, skeleton);
+    private void renderMinimap(float delta) {
+        renderService.begin(minimapViewport).draw(minimapFrame, minimapCamera.position.x - minimapCamera.viewportWidth / 2,
+            minimapCamera.position.y - minimapCamera.viewportHeight / 2, minimapCamera.viewportWidth, minimapCamera.viewportHeight);
 
-        batch.end();
+        renderDebug(minimapViewport, Color.GREEN);
+        minimapStage.act(delta);
+        renderService.drawStage(minimapStage);
+        renderTrail(minimapViewport);
     }
 
-    private void playButtonPressAnimation(final String animationName, int skeletonIndex) {
-        Gdx.app.log("MainMenuScreen", "Playing button press animation: " + animationName);
-        states.get(skeletonIndex).setAnimation(4, animationName, false).setListener(new AnimationState.AnimationStateListener() {
-            @Override
-            public void start(AnimationState.TrackEntry entry) {
-            }
-
-            @Override
-            public void interrupt(AnimationState.TrackEntry entry) {
-            }
-
-            @Override
-            public void end(AnimationState.TrackEntry entry) {
-            }
+    // Draws the minimap background and the main skeleton, as it is posed now, into the minimap buffer
+    private void drawMinimapFrame() {
+        float left = minimapCamera.position.x - minimapCamera.viewportWidth / 2;
+        float bottom = minimapCamera.position.y - minimapCamera.viewportHeight / 2;
+
+        renderService.end();
+        minimapBuffer.begin();
+        Gdx.gl.glClearColor(0, 0, 0, 1);
+        Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
+        TwoColorPolygonBatch batch = renderService.begin(minimapCamera);
+        batch.draw(minimapRegion, left, bottom, minimapCamera.viewportWidth, minimapCamera.viewportHeight);
+        skeletonRenderer.draw(batch, getPose(AnimationType.MENU.ordinal()));
+        renderService.end();
+        minimapBuffer.end();
+        // Ending the buffer set the GL viewport back to the whole screen
+        renderService.invalidate();
+    }
 
-            @Override
-            public void dispose(AnimationState.TrackEntry entry) {
-            }
+    private void renderMenu() {
+        drawSkeleton(renderService.begin(viewport), AnimationType.MENU.ordinal(), viewport);
+    }
 
-            @Override
-            public void complete(AnimationState.TrackEntry entry) {
-                Gdx.app.log("MainMenuScreen", "Animation complete: " + animationName);
-                if (animationName.equals("Buttons/PlayPress")) {
-                    Gdx.app.postRunnable(new Runnable() {
-                        @Override
-                        public void run() {
-                            Gdx.app.log("MainMenuScreen", "Changing screen to: MainMenuScreen");
-                            screenManager.setScreen(ScreenType.MAIN);
-                        }
-                    });
-                } else if (animationName.equals("Buttons/SettingsPress")) {
-                    Gdx.app.postRunnable(new Runnable() {
-                        @Override
-                        public void run() {
-                            Gdx.app.log("MainMenuScreen", "Changing screen to: OptionsScreen");
-                            screenManager.setScreen(ScreenType.STGS);
-                        }
-                    });
-                } else if (animationName.equals("Buttons/QuitPress")) {
-                    Gdx.app.postRunnable(new Runnable() {
-                        @Override
-                        public void run() {
-                            Gdx.net.openURI("https://www.google.com");
-                        }
-                    });
-                }
+    private void playButtonPressAnimation(MenuAnimation animation) {
+        Gdx.app.log("MainMenuScreen", "Playing button press animation: " + animation.getAnimationName());
+        animations.setAnimation(states.get(AnimationType.MENU.ordinal()), 4, animation, false);
+    }
 
-            }
+    @Override
+    public void update(float step) {
+        super.update(step);
+        states.get(AnimationType.MENU.ordinal()).update(step);
+    }
 
-            @Override
-            public void event(AnimationState.TrackEntry entry, Event event) {
-            }
-        });
+    @Override
+    public void pose(float ahead) {
+        Skeleton skeleton = skeletons.get(AnimationType.MENU.ordinal());
+        // The transform is part of what decides whether the pose changed, so it is set first
+        updateSkeletonScaleAndPosition(viewport);
+        if (needsPose(AnimationType.MENU.ordinal(), ahead)) {
+            SimulationClock.applyAhead(states.get(AnimationType.MENU.ordinal()), skeleton, ahead);
+            skeleton.updateWorldTransform();
+        }
     }
 
     @Override
@@ -293,6 +366,8 @@ public class MainMenuScreen extends BaseScreen {
 
         clearScreen();
 
+        refreshMinimap(delta);
+
         renderBackground();
 
         renderMainContent(delta);
@@ -300,50 +375,63 @@ public class MainMenuScreen extends BaseScreen {
         renderMinimap(delta);
     }
 
-    private void renderDebug(Viewport viewport, Color color, int skeletonIndex) {
+    private void renderDebug(Viewport viewport, Color color) {
         if (debugMode) {
+            renderService.end();
             shapeRenderer.setProjectionMatrix(viewport.getCamera().combined);
             shapeRenderer.begin(ShapeRenderer.ShapeType.Line);
             shapeRenderer.setColor(color);
-            drawDebugBounds(Constants.MainMenuScreen.BUTTON_PLAY_NAME, skeletonIndex);
-            drawDebugBounds(Constants.MainMenuScreen.BUTTON_QUIT_NAME, skeletonIndex);
-            drawDebugBounds(Constants.MainMenuScreen.BUTTON_STGS_NAME, skeletonIndex);
+            buttonRegions.setSkeleton(getPose(AnimationType.MENU.ordinal()));
+            drawHitRegions(buttonRegions);
             shapeRenderer.end();
         }
     }
 
-    private void drawDebugBounds(String buttonName, int skeletonIndex) {
-        Rectangle bounds = getButtonBounds(buttonName, skeletonIndex);
-        shapeRenderer.rect(bounds.x, bounds.y, bounds.width, bounds.height);
-    }
-
     @Override
     public void resize(int width, int height) {
         viewport.update(width, height, true);
-        backgroundViewport.update(width, height, true);
         updateMinimapViewport(width, height);
     }
 
+    // Frames the whole main world, widened to the minimap's aspect ratio
     private void updateMinimapViewport(int width, int height) {
-        minimapViewport.update(width, height, true);
+        float aspect = (float) Constants.Minimap.WIDTH / Constants.Minimap.HEIGHT;
+        float worldWidth = Math.max(viewport.getWorldWidth(), viewport.getWorldHeight() * aspect);
+        minimapViewport.setWorldSize(worldWidth, worldWidth / aspect);
+        minimapViewport.update(width, height, false);
+        minimapCamera.position.set(viewport.getWorldWidth() / 2, viewport.getWorldHeight() / 2, 0);
+        minimapCamera.update();
         minimapViewport.setScreenBounds(width - Constants.Minimap.WIDTH - Constants.Minimap.PADDING,
             height - Constants.Minimap.HEIGHT - Constants.Minimap.PADDING, Constants.Minimap.WIDTH, Constants.Minimap.HEIGHT);
+        // Trail dots are sized in world units, so on a minimap framing more of the world they are scaled up
+        // to stay the size they have over the minimap texture at one world unit per texel
+        trails.get(minimapViewport).setScale(worldWidth / minimapRegion.getRegionWidth());
+        invalidateMinimap();
     }
 
-    private void updateSkeletonScaleAndPosition(Viewport viewport, int skeletonIndex) {
-        setSkeletonScale(skeletons.get(skeletonIndex), Constants.MainMenuScreen.SKEL_WIDTH_PERCENTAGE, Constants.MainMenuScreen.SKEL_HEIGHT_PERCENTAGE, viewport);
-        setSkeletonPosition(skeletons.get(skeletonIndex), viewport.getWorldWidth() / 2, viewport.getWorldHeight() / 2);
+    // Redraw the minimap on the next frame
+    private void invalidateMinimap() {
+        minimapPose.invalidate();
+        minimapAge = Float.MAX_VALUE;
+    }
+
+    private void updateSkeletonScaleAndPosition(Viewport viewport) {
+        Skeleton skeleton = skeletons.get(AnimationType.MENU.ordinal());
+        setSkeletonScale(skeleton, Constants.MainMenuScreen.SKEL_WIDTH_PERCENTAGE, Constants.MainMenuScreen.SKEL_HEIGHT_PERCENTAGE, viewport);
+        setSkeletonPosition(skeleton, viewport.getWorldWidth() / 2, viewport.getWorldHeight() / 2);
+    }
+
+    @Override
+    public void resume() {
+        // The frame buffer comes back empty after a context loss
+        invalidateMinimap();
     }
 
     @Override
     public void dispose() {
         stage.dispose();
         minimapStage.dispose();
-        if (batch != null) {
-            batch.dispose();
-        }
-        if (shapeRenderer != null) {
-            shapeRenderer.dispose();
-        }
+        minimapBuffer.dispose();
+        super.dispose();
     }
 }
@@ -0,0 +1,113 @@
+package com.kandclay.utils;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IdentityMap;
+import com.esotericsoftware.spine.Animation;
+import com.esotericsoftware.spine.AnimationState;
+import com.esotericsoftware.spine.Bone;
+import com.esotericsoftware.spine.Skeleton;
+import com.esotericsoftware.spine.SkeletonData;
+
+/**
+ * The area each animation of a skeleton can ever cover, so culling never has to measure a posed skeleton.
+ * Every animation is sampled once, from the setup pose at a fixed rate, on a skeleton at the origin with
+ * a scale of 1; a skeleton's world bounds are then those local bounds moved and scaled like the skeleton.
+ * A skeleton whose root bone is rotated away from its setup rotation gets bounds that hold the local
+ * bounds at any rotation.
+ */
+public class AnimationBounds {
+    private final Rectangle setupBounds = new Rectangle();
+    private final Rectangle allBounds = new Rectangle();
+    private final IdentityMap<Animation, Rectangle> animationBounds = new IdentityMap<Animation, Rectangle>();
+    // Used by the world bounds queries, which only ever run on the render thread
+    private final Rectangle local = new Rectangle();
+
+    public AnimationBounds(SkeletonData data, float sampleRate) {
+        Skeleton skeleton = new Skeleton(data);
+        Vector2 offset = new Vector2();
+        Vector2 size = new Vector2();
+        FloatArray temp = new FloatArray();
+
+        skeleton.updateWorldTransform();
+        measure(skeleton, offset, size, temp, setupBounds);
+        allBounds.set(setupBounds);
+
+        Array<Animation> animations = data.getAnimations();
+        Rectangle sample = new Rectangle();
+        for (int i = 0; i < animations.size; i++) {
+            Animation animation = animations.get(i);
+            Rectangle bounds = new Rectangle();
+            boolean first = true;
+            float duration = animation.getDuration();
+            for (float time = 0; ; time = Math.min(time + 1f / sampleRate, duration)) {
+                skeleton.setToSetupPose();
+                animation.apply(skeleton, time, time, false, null, 1, Animation.MixBlend.setup, Animation.MixDirection.in);
+                skeleton.updateWorldTransform();
+                measure(skeleton, offset, size, temp, sample);
+                if (first) {
+                    bounds.set(sample);
+                    first = false;
+                } else {
+                    bounds.merge(sample);
+                }
+                if (time >= duration) {
+                    break;
+                }
+            }
+            animationBounds.put(animation, bounds);
+            allBounds.merge(bounds);
+        }
+    }
+
+    /**
+     * The world bounds of a skeleton posed by the given state: the setup pose and the animation of every
+     * track, and of every entry a track still mixes from.
+     */
+    public Rectangle getWorldBounds(Skeleton skeleton, AnimationState state, Rectangle out) {
+        local.set(setupBounds);
+        Array<AnimationState.TrackEntry> tracks = state.getTracks();
+        for (int i = 0; i < tracks.size; i++) {
+            for (AnimationState.TrackEntry entry = tracks.get(i); entry != null; entry = entry.getMixingFrom()) {
+                Rectangle bounds = animationBounds.get(entry.getAnimation());
+                if (bounds != null) {
+                    local.merge(bounds);
+                }
+            }
+        }
+        return toWorld(skeleton, local, out);
+    }
+
+    // The world bounds of a skeleton whatever it plays
+    public Rectangle getWorldBounds(Skeleton skeleton, Rectangle out) {
+        return toWorld(skeleton, allBounds, out);
+    }
+
+    private static Rectangle toWorld(Skeleton skeleton, Rectangle bounds, Rectangle out) {
+        float minX = bounds.x, minY = bounds.y;
+        float maxX = bounds.x + bounds.width, maxY = bounds.y + bounds.height;
+        Bone root = skeleton.getRootBone();
+        if (root != null && root.getRotation() != root.getData().getRotation()) {
+            float radius = (float) Math.sqrt(Math.max(minX * minX, maxX * maxX) + Math.max(minY * minY, maxY * maxY));
+            minX = minY = -radius;
+            maxX = maxY = radius;
+        }
+        float x1 = skeleton.getX() + minX * skeleton.getScaleX();
+        float x2 = skeleton.getX() + maxX * skeleton.getScaleX();
+        float y1 = skeleton.getY() + minY * skeleton.getScaleY();
+        float y2 = skeleton.getY() + maxY * skeleton.getScaleY();
+        return out.set(Math.min(x1, x2), Math.min(y1, y2), Math.abs(x2 - x1), Math.abs(y2 - y1));
+    }
+
+    // A skeleton with nothing visible measures as an empty area at its origin
+    private static void measure(Skeleton skeleton, Vector2 offset, Vector2 size, FloatArray temp, Rectangle out) {
+        skeleton.getBounds(offset, size, temp);
+        if (size.x < 0 || size.y < 0) {
+            out.set(0, 0, 0, 0);
+        } else {
+            out.set(offset.x, offset.y, size.x, size.y);
+        }
+    }
+}
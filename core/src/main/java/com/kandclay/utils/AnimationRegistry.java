@@ -0,0 +1,52 @@
+package com.kandclay.utils;
+
+import com.badlogic.gdx.utils.IdentityMap;
+import com.esotericsoftware.spine.Animation;
+import com.esotericsoftware.spine.AnimationState;
+import com.esotericsoftware.spine.SkeletonData;
+
+/**
+ * The animations of one skeleton data, each named by a constant of an enum and found by name only once,
+ * when the registry is created. Playing an animation is then an array lookup rather than a scan of the
+ * skeleton data, and a listener tells which animation an entry plays with {@link #getId(Animation)}
+ * instead of comparing names.
+ */
+public class AnimationRegistry<K extends Enum<K> & AnimationRegistry.Id> {
+
+    // Implemented by the enums that name a skeleton's animations
+    public interface Id {
+        String getAnimationName();
+    }
+
+    private final Animation[] animations;
+    private final IdentityMap<Animation, K> ids = new IdentityMap<Animation, K>();
+
+    /**
+     * @param ids every constant of the enum, as returned by its {@code values()}
+     * @throws IllegalArgumentException if the skeleton data has no animation of one of the names
+     */
+    public AnimationRegistry(SkeletonData data, K[] ids) {
+        animations = new Animation[ids.length];
+        for (K id : ids) {
+            Animation animation = data.findAnimation(id.getAnimationName());
+            if (animation == null) {
+                throw new IllegalArgumentException("Animation not found: " + id.getAnimationName());
+            }
+            animations[id.ordinal()] = animation;
+            this.ids.put(animation, id);
+        }
+    }
+
+    public Animation get(K id) {
+        return animations[id.ordinal()];
+    }
+
+    // Null for an animation that is not in the registry
+    public K getId(Animation animation) {
+        return ids.get(animation);
+    }
+
+    public AnimationState.TrackEntry setAnimation(AnimationState state, int trackIndex, K id, boolean loop) {
+        return state.setAnimation(trackIndex, animations[id.ordinal()], loop);
+    }
+}
@@ -0,0 +1,109 @@
+package com.kandclay.utils;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.esotericsoftware.spine.Animation;
+import com.esotericsoftware.spine.BlendMode;
+import com.esotericsoftware.spine.Skeleton;
+import com.esotericsoftware.spine.Slot;
+import com.esotericsoftware.spine.attachments.RegionAttachment;
+
+/**
+ * An animation of a single region attachment, sampled once into a frame table. Each frame holds the quad
+ * corners relative to the skeleton origin and the slot color, so the animation can be drawn as plain
+ * batched quads without a Spine {@code AnimationState} or world transform update per instance.
+ */
+public class BakedRegionAnimation {
+    public static final int QUAD_SIZE = 8;
+    public static final int COLOR_SIZE = 4;
+
+    private final Texture texture;
+    private final float[] uvs;
+    private final float[] quads;
+    private final float[] colors;
+    private final int frameCount;
+    private final float framesPerSecond;
+    private final float duration;
+    private final int blendSource;
+    private final int blendDest;
+
+    /**
+     * Samples the animation on the given skeleton, which must be at its origin with unit scale and rotation.
+     * The skeleton is left in its setup pose.
+     */
+    public BakedRegionAnimation(Skeleton skeleton, Animation animation, String slotName, float framesPerSecond) {
+        Slot slot = skeleton.findSlot(slotName);
+        if (slot == null || !(slot.getAttachment() instanceof RegionAttachment)) {
+            throw new GdxRuntimeException("Slot has no region attachment: " + slotName);
+        }
+        RegionAttachment attachment = (RegionAttachment) slot.getAttachment();
+
+        this.texture = attachment.getRegion().getTexture();
+        this.uvs = attachment.getUVs().clone();
+        this.framesPerSecond = framesPerSecond;
+        this.duration = animation.getDuration();
+        this.frameCount = (int) Math.ceil(duration * framesPerSecond) + 1;
+        this.quads = new float[frameCount * QUAD_SIZE];
+        this.colors = new float[frameCount * COLOR_SIZE];
+
+        BlendMode blendMode = slot.getData().getBlendMode();
+        this.blendSource = blendMode.getSource(true);
+        this.blendDest = blendMode.getDest();
+
+        for (int frame = 0; frame < frameCount; frame++) {
+            float time = Math.min(frame / framesPerSecond, duration);
+            skeleton.setToSetupPose();
+            animation.apply(skeleton, time, time, false, null, 1, Animation.MixBlend.setup, Animation.MixDirection.in);
+            skeleton.updateWorldTransform();
+
+            attachment.computeWorldVertices(slot.getBone(), quads, frame * QUAD_SIZE, 2);
+            Color slotColor = slot.getColor();
+            Color attachmentColor = attachment.getColor();
+            int offset = frame * COLOR_SIZE;
+            colors[offset] = slotColor.r * attachmentColor.r;
+            colors[offset + 1] = slotColor.g * attachmentColor.g;
+            colors[offset + 2] = slotColor.b * attachmentColor.b;
+            colors[offset + 3] = slotColor.a * attachmentColor.a;
+        }
+        skeleton.setToSetupPose();
+        skeleton.updateWorldTransform();
+    }
+
+    /**
+     * @return the index of the frame to show at the given time, clamped to the last frame
+     */
+    public int getFrame(float time) {
+        int frame = (int) (time * framesPerSecond);
+        return frame < frameCount ? frame : frameCount - 1;
+    }
+
+    public Texture getTexture() {
+        return texture;
+    }
+
+    // Texture coordinates of the four quad corners, in the same order as the frame vertices
+    public float[] getUVs() {
+        return uvs;
+    }
+
+    public float[] getQuads() {
+        return quads;
+    }
+
+    public float[] getColors() {
+        return colors;
+    }
+
+    public float getDuration() {
+        return duration;
+    }
+
+    public int getBlendSource() {
+        return blendSource;
+    }
+
+    public int getBlendDest() {
+        return blendDest;
+    }
+}
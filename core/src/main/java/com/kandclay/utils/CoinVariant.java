@@ -0,0 +1,42 @@
+package com.kandclay.utils;
+
+import com.badlogic.gdx.graphics.Color;
+
+/**
+ * Colour variants of the coin. Every variant is drawn with the same coin skeleton and only overrides the
+ * colour of some slots on top of the animated pose; a variant without overrides shows the coin as exported.
+ */
+public enum CoinVariant {
+    YELLOW,
+    RED("coin-side", "ff0000ff", "coin-side-round", "ff2e2eff", "coin-front-texture", "ff0000ff");
+
+    private static final CoinVariant[] vals = values();
+
+    private final String[] slotNames;
+    private final Color[] colors;
+
+    CoinVariant(String... slotColors) {
+        slotNames = new String[slotColors.length / 2];
+        colors = new Color[slotColors.length / 2];
+        for (int i = 0; i < slotNames.length; i++) {
+            slotNames[i] = slotColors[i * 2];
+            colors[i] = Color.valueOf(slotColors[i * 2 + 1]);
+        }
+    }
+
+    public int getSlotCount() {
+        return slotNames.length;
+    }
+
+    public String getSlotName(int index) {
+        return slotNames[index];
+    }
+
+    public Color getColor(int index) {
+        return colors[index];
+    }
+
+    public CoinVariant next() {
+        return vals[(this.ordinal() + 1) % vals.length];
+    }
+}
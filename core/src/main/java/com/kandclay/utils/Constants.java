@@ -28,25 +28,24 @@ public class Constants {
         public static final String BUTTON_3X__NAME = "3x";
         public static final String ATLAS = "spine/speedButtons.atlas";
         public static final String JSON = "spine/speedButtons.json";
+        public static final String SKEL = "spine/speedButtons.skel"; // Built by core:exportSpineBinary, JSON is the fallback
         public static final float COIN_WIDTH_PERCENTAGE = 0.4f;
         public static final float COIN_HEIGHT_PERCENTAGE = 0.4f;
         public static final float BUTTONS_WIDTH_PERCENTAGE = 0.3f;
         public static final float BUTTONS_HEIGHT_PERCENTAGE = 0.3f;
 
-        public static class YellowCoin {
+        // One skeleton for every coin colour, see CoinVariant
+        public static class Coin {
             public static final String ATLAS = "spine/coin-yellow.atlas";
             public static final String JSON = "spine/coin-yellow.json";
-        }
-
-        public static class RedCoin {
-            public static final String ATLAS = "spine/coin-red.atlas";
-            public static final String JSON = "spine/coin-red.json";
+            public static final String SKEL = "spine/coin-yellow.skel";
         }
     }
 
     public static class MainMenuScreen {
         public static final String ATLAS = "spine/menu.atlas";
         public static final String JSON = "spine/menu.json";
+        public static final String SKEL = "spine/menu.skel";
         public static final String BUTTON_PLAY_NAME = "play";
         public static final String BUTTON_QUIT_NAME = "quit";
         public static final String BUTTON_STGS_NAME = "settings";
@@ -54,11 +53,62 @@ public class Constants {
         public static final float SKEL_HEIGHT_PERCENTAGE = 1.3f;
     }
 
+    public static class Screens {
+        public static final ScreenRetention RETENTION = ScreenRetention.ALWAYS;
+        public static final int LRU_SIZE = 2; // Cached screens besides the current one
+        public static final float MIN_FREE_HEAP = 0.2f; // Fraction of the max heap below which cached screens are dropped
+        public static final boolean IDLE_RENDERING = true; // Stop drawing frames while nothing moves on screen
+        public static final int DEFAULT_REFRESH_RATE = 60; // Used when the display does not report its own
+    }
+
+    public static class Culling {
+        public static final float BOUNDS_SAMPLE_RATE = 30f; // Samples per second of animation when measuring its bounds
+        public static final float MIN_FULL_RATE_PIXELS = 24f; // On-screen size below which a skeleton is posed less often
+        public static final float REDUCED_POSE_RATE = 20f; // Poses per second of such small skeletons
+    }
+
+    public static class Scrub {
+        public static final float SAMPLE_RATE = 60f; // Samples per second of animation kept for scrubbing
+        public static final long MAX_BYTES = 2L * 1024 * 1024; // Memory budget of the samples of one skeleton's animations
+    }
+
+    public static class Configuration {
+        public static final float FLUSH_DELAY = 0.5f; // Seconds without changes before preferences are written
+        public static final float MAX_FLUSH_DELAY = 2f; // Longest an unsaved change waits while changes keep coming
+    }
+
+    public static class Render {
+        public static final float PROFILE_INTERVAL = 5f; // Seconds between render profile logs
+    }
+
+    public static class Simulation {
+        public static final float TICK_RATE = 60f; // Animation ticks per second
+        public static final int MAX_TICKS_PER_FRAME = 4; // Ticks a long frame may catch up, the rest is dropped
+        public static final int UPDATE_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors()); // Skeleton batch update workers
+        public static final int MIN_BATCH_SIZE = 64; // Skeletons per batch below which an update is not split
+    }
+
+    public static class Loading {
+        public static final int FRAME_BUDGET_MS = 10; // Time spent loading per frame while the loading screen is up
+        public static final int BACKGROUND_BUDGET_MS = 4; // Time spent per frame on background loads
+        public static final int PRIORITY_SCREEN = 0; // Assets of the screen being opened
+        public static final int PRIORITY_BACKGROUND = 1; // Assets of screens that may be opened later
+        public static final int DECODE_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors()); // Image decode workers
+        public static final float BAR_WIDTH_PERCENTAGE = 0.5f;
+        public static final float BAR_HEIGHT = 12f;
+    }
+
+    public static class Input {
+        public static final int QUEUE_SIZE = 256; // Events buffered per frame before an early flush
+        public static final int PATH_SIZE = 512; // Pointer positions kept per frame for merged moves
+    }
+
     public static class Minimap {
         public static final int WIDTH = 200;
         public static final int HEIGHT = 200;
         public static final int PADDING = 20;
         public static final String PATH = "vp/texture.png";
+        public static final float REFRESH_RATE = 12f; // Times per second the minimap is redrawn while the menu moves
     }
 
     public static class Audio {
@@ -82,6 +132,11 @@ public class Constants {
         public static final int MAX_ROTATION = 359;
         public static final String ATLAS = "spine/trailDot.atlas";
         public static final String JSON = "spine/trailDot.json";
+        public static final String SKEL = "spine/trailDot.skel";
+        public static final String SLOT = "heat";
+        public static final int MAX_DOTS = 1024; // Live dots per viewport, the oldest are evicted first
+        public static final float MIN_EMIT_DISTANCE = 4f; // World units the pointer must move between dots
+        public static final float BAKE_FPS = 60f;
     }
 
     public static class Skin {
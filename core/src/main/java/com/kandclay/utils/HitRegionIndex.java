@@ -0,0 +1,194 @@
+package com.kandclay.utils;
+
+import com.badlogic.gdx.math.Intersector;
+import com.esotericsoftware.spine.Bone;
+import com.esotericsoftware.spine.Skeleton;
+import com.esotericsoftware.spine.Slot;
+import com.esotericsoftware.spine.attachments.Attachment;
+import com.esotericsoftware.spine.attachments.BoundingBoxAttachment;
+import com.esotericsoftware.spine.attachments.RegionAttachment;
+
+/**
+ * Hit regions of one skeleton, each backed by the region or bounding box attachment of a named slot. The
+ * slots are looked up once; the world-space outline and bounds of a region are only recomputed when its
+ * bone or attachment changed since the last query, so any number of hover and click tests between two
+ * poses cost a bounds check and at most one point-in-polygon test each. Queries never allocate.
+ * <p>
+ * The index also keeps the hover state of every region, for screens that play hover-in and hover-out
+ * animations.
+ */
+public class HitRegionIndex {
+    private static final int REGION_VERTICES = 8;
+
+    private Skeleton skeleton;
+    private final Slot[] slots;
+    private final int[] slotIndices;
+    private float[][] vertices;
+    private final int[] vertexCounts;
+    // minX, minY, maxX, maxY per region
+    private final float[] bounds;
+    // Bone world transform and attachment the outline was computed from
+    private final float[] poses;
+    private final Attachment[] attachments;
+    private final boolean[] hovered;
+
+    public HitRegionIndex(Skeleton skeleton, String... slotNames) {
+        int count = slotNames.length;
+        this.skeleton = skeleton;
+        slots = new Slot[count];
+        slotIndices = new int[count];
+        vertices = new float[count][];
+        vertexCounts = new int[count];
+        bounds = new float[count * 4];
+        poses = new float[count * 6];
+        attachments = new Attachment[count];
+        hovered = new boolean[count];
+        for (int i = 0; i < count; i++) {
+            slots[i] = skeleton.findSlot(slotNames[i]);
+            if (slots[i] == null) {
+                throw new IllegalArgumentException("Slot not found: " + slotNames[i]);
+            }
+            slotIndices[i] = slots[i].getData().getIndex();
+            vertices[i] = new float[REGION_VERTICES];
+        }
+    }
+
+    /**
+     * Tests against another skeleton of the same skeleton data from now on, e.g. the pose published by a
+     * simulation thread. Hover states are kept.
+     */
+    public void setSkeleton(Skeleton skeleton) {
+        if (skeleton == this.skeleton) {
+            return;
+        }
+        this.skeleton = skeleton;
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = skeleton.getSlots().get(slotIndices[i]);
+            // Forces the outline to be recomputed from the new slot
+            attachments[i] = null;
+        }
+    }
+
+    public int size() {
+        return slots.length;
+    }
+
+    /**
+     * @return whether the point, in the skeleton's world coordinates, is inside the region
+     */
+    public boolean contains(int region, float x, float y) {
+        if (!update(region)) {
+            return false;
+        }
+        int b = region * 4;
+        if (x < bounds[b] || y < bounds[b + 1] || x > bounds[b + 2] || y > bounds[b + 3]) {
+            return false;
+        }
+        return Intersector.isPointInPolygon(vertices[region], 0, vertexCounts[region], x, y);
+    }
+
+    /**
+     * @return the first region containing the point, or -1
+     */
+    public int hit(float x, float y) {
+        for (int i = 0; i < slots.length; i++) {
+            if (contains(i, x, y)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public boolean isHovered(int region) {
+        return hovered[region];
+    }
+
+    /**
+     * @return true if the hover state of the region changed
+     */
+    public boolean setHovered(int region, boolean isHovered) {
+        if (hovered[region] == isHovered) {
+            return false;
+        }
+        hovered[region] = isHovered;
+        return true;
+    }
+
+    public void clearHover() {
+        for (int i = 0; i < hovered.length; i++) {
+            hovered[i] = false;
+        }
+    }
+
+    /**
+     * The world-space outline of the region as x, y pairs, valid up to {@link #getVertexCount(int)}.
+     */
+    public float[] getVertices(int region) {
+        update(region);
+        return vertices[region];
+    }
+
+    public int getVertexCount(int region) {
+        update(region);
+        return vertexCounts[region];
+    }
+
+    // Recompute the outline if the pose moved; false if the slot shows nothing that can be hit
+    private boolean update(int region) {
+        Slot slot = slots[region];
+        Attachment attachment = slot.getAttachment();
+        if (!(attachment instanceof RegionAttachment) && !(attachment instanceof BoundingBoxAttachment)) {
+            attachments[region] = null;
+            vertexCounts[region] = 0;
+            return false;
+        }
+
+        Bone bone = slot.getBone();
+        int p = region * 6;
+        // Weighted and deformed vertices depend on more than the slot's bone, so they are always recomputed
+        boolean dependsOnBoneOnly = attachment instanceof RegionAttachment
+            || (((BoundingBoxAttachment) attachment).getBones() == null && slot.getDeform().size == 0);
+        if (dependsOnBoneOnly && attachment == attachments[region]
+            && poses[p] == bone.getA() && poses[p + 1] == bone.getB() && poses[p + 2] == bone.getC()
+            && poses[p + 3] == bone.getD() && poses[p + 4] == bone.getWorldX() && poses[p + 5] == bone.getWorldY()) {
+            return vertexCounts[region] > 0;
+        }
+        attachments[region] = attachment;
+        poses[p] = bone.getA();
+        poses[p + 1] = bone.getB();
+        poses[p + 2] = bone.getC();
+        poses[p + 3] = bone.getD();
+        poses[p + 4] = bone.getWorldX();
+        poses[p + 5] = bone.getWorldY();
+
+        int count;
+        if (attachment instanceof RegionAttachment) {
+            count = REGION_VERTICES;
+            ((RegionAttachment) attachment).computeWorldVertices(bone, vertices[region], 0, 2);
+        } else {
+            BoundingBoxAttachment boundingBox = (BoundingBoxAttachment) attachment;
+            count = boundingBox.getWorldVerticesLength();
+            // Only grows when a bigger bounding box is shown for the first time
+            if (vertices[region].length < count) {
+                vertices[region] = new float[count];
+            }
+            boundingBox.computeWorldVertices(slot, 0, count, vertices[region], 0, 2);
+        }
+        vertexCounts[region] = count;
+
+        float[] outline = vertices[region];
+        float minX = outline[0], minY = outline[1], maxX = outline[0], maxY = outline[1];
+        for (int i = 2; i < count; i += 2) {
+            minX = Math.min(minX, outline[i]);
+            minY = Math.min(minY, outline[i + 1]);
+            maxX = Math.max(maxX, outline[i]);
+            maxY = Math.max(maxY, outline[i + 1]);
+        }
+        int b = region * 4;
+        bounds[b] = minX;
+        bounds[b + 1] = minY;
+        bounds[b + 2] = maxX;
+        bounds[b + 3] = maxY;
+        return count > 0;
+    }
+}
@@ -0,0 +1,105 @@
+package com.kandclay.utils;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+import com.esotericsoftware.spine.Bone;
+import com.esotericsoftware.spine.Skeleton;
+import com.esotericsoftware.spine.Slot;
+
+/**
+ * Triple buffer of the poses of a skeleton that is simulated on another thread. The simulation thread
+ * poses the skeleton and {@link #publish(Skeleton) publishes} a copy of what is needed to draw it: bone
+ * world transforms, slot colours, attachments and deforms, and the draw order. The render thread
+ * {@link #acquire() acquires} the latest published copy once per frame and only reads it until the next
+ * acquire. Neither thread ever waits for the other to finish with a pose, and nothing is allocated after
+ * construction.
+ * <p>
+ * The copies are never posed themselves: their local transforms stay at the setup pose and they must not
+ * be passed to {@code updateWorldTransform()}.
+ */
+public class PoseBuffer {
+    private final Skeleton[] poses = new Skeleton[3];
+    // Written by the simulation, the latest published, and the one being drawn
+    private int back = 0;
+    private int ready = 1;
+    private int front = 2;
+    private boolean fresh;
+
+    public PoseBuffer(Skeleton skeleton) {
+        for (int i = 0; i < poses.length; i++) {
+            poses[i] = new Skeleton(skeleton);
+            copyPose(skeleton, poses[i]);
+        }
+    }
+
+    /**
+     * Copies the skeleton's current world pose and makes it the latest. Called by the simulation thread.
+     */
+    public void publish(Skeleton skeleton) {
+        copyPose(skeleton, poses[back]);
+        synchronized (this) {
+            int published = back;
+            back = ready;
+            ready = published;
+            fresh = true;
+        }
+    }
+
+    /**
+     * Switches to the latest published pose, if there is a newer one. Called by the render thread.
+     */
+    public Skeleton acquire() {
+        synchronized (this) {
+            if (fresh) {
+                int latest = ready;
+                ready = front;
+                front = latest;
+                fresh = false;
+            }
+        }
+        return poses[front];
+    }
+
+    // The pose acquired last, to be read on the render thread
+    public Skeleton getFront() {
+        return poses[front];
+    }
+
+    private static void copyPose(Skeleton from, Skeleton to) {
+        Array<Bone> fromBones = from.getBones();
+        Array<Bone> toBones = to.getBones();
+        for (int i = 0; i < fromBones.size; i++) {
+            Bone source = fromBones.get(i);
+            Bone bone = toBones.get(i);
+            bone.setA(source.getA());
+            bone.setB(source.getB());
+            bone.setC(source.getC());
+            bone.setD(source.getD());
+            bone.setWorldX(source.getWorldX());
+            bone.setWorldY(source.getWorldY());
+        }
+
+        to.getColor().set(from.getColor());
+        Array<Slot> fromSlots = from.getSlots();
+        Array<Slot> toSlots = to.getSlots();
+        for (int i = 0; i < fromSlots.size; i++) {
+            Slot source = fromSlots.get(i);
+            Slot slot = toSlots.get(i);
+            slot.getColor().set(source.getColor());
+            if (source.getDarkColor() != null) {
+                slot.getDarkColor().set(source.getDarkColor());
+            }
+            // Changing the attachment clears the deform, so it goes first
+            slot.setAttachment(source.getAttachment());
+            FloatArray deform = slot.getDeform();
+            deform.clear();
+            deform.addAll(source.getDeform());
+        }
+
+        Array<Slot> fromOrder = from.getDrawOrder();
+        Array<Slot> toOrder = to.getDrawOrder();
+        for (int i = 0; i < fromOrder.size; i++) {
+            toOrder.set(i, toSlots.get(fromOrder.get(i).getData().getIndex()));
+        }
+    }
+}
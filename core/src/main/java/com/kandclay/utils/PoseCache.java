@@ -0,0 +1,278 @@
+package com.kandclay.utils;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.NumberUtils;
+import com.badlogic.gdx.utils.ShortArray;
+import com.esotericsoftware.spine.AnimationState;
+import com.esotericsoftware.spine.BlendMode;
+import com.esotericsoftware.spine.Skeleton;
+import com.esotericsoftware.spine.SkeletonRenderer;
+import com.esotericsoftware.spine.Slot;
+import com.esotericsoftware.spine.attachments.Attachment;
+import com.esotericsoftware.spine.attachments.ClippingAttachment;
+import com.esotericsoftware.spine.attachments.MeshAttachment;
+import com.esotericsoftware.spine.attachments.RegionAttachment;
+import com.esotericsoftware.spine.attachments.SkeletonAttachment;
+import com.esotericsoftware.spine.utils.SkeletonClipping;
+import com.esotericsoftware.spine.utils.TwoColorPolygonBatch;
+
+/**
+ * Versions the pose of one skeleton so a pose that cannot have changed is neither computed nor built again.
+ * {@link #needsPose(Skeleton, AnimationState, float)} compares what the state would apply, the animation
+ * times each track and mix would be applied at, with what was applied last, together with the skin and
+ * the skeleton's transform and colour; the pose only has to be applied and transformed again when they
+ * differ. {@link #draw(TwoColorPolygonBatch, SkeletonRenderer, Skeleton)} then records the vertices the
+ * renderer draws once the pose has been drawn unchanged twice, and replays them for as long as it stays so.
+ * They are computed from the skeleton as {@code SkeletonRenderer} computes them for a two colour batch,
+ * attachments, clipping and blending included, so recording needs no batch of its own.
+ * <p>
+ * Anything else that changes the pose, such as setting slot colours or attachments by hand, must be
+ * followed by {@link #invalidate()}.
+ */
+public class PoseCache {
+    private static final short[] QUAD_TRIANGLES = {0, 1, 2, 2, 3, 0};
+    // Recording scratch shared by every cache, since skeletons are only drawn on the render thread
+    private static final SkeletonClipping clipper = new SkeletonClipping();
+    private static final FloatArray scratch = new FloatArray(32);
+
+    // What the last pose was applied from: animations and skin by identity, times and transform by value
+    private final Array<Object> refs = new Array<Object>();
+    private final FloatArray values = new FloatArray();
+    private final Array<Object> lastRefs = new Array<Object>();
+    private final FloatArray lastValues = new FloatArray();
+    private boolean posed;
+    private int version;
+
+    // Recorded draws: the texture, blend function and the ranges of the vertices and triangles of each
+    private final Array<Texture> textures = new Array<Texture>();
+    private final IntArray draws = new IntArray();
+    private final FloatArray vertices = new FloatArray();
+    private final ShortArray triangles = new ShortArray();
+    private boolean recordedPremultipliedAlpha;
+    private int recordedVersion = -1;
+    private int drawnVersion = -1;
+
+    /**
+     * Whether the skeleton has to be posed again to show the state the given number of seconds from now.
+     * Once this returns true the caller must apply the state and update the world transform.
+     */
+    public boolean needsPose(Skeleton skeleton, AnimationState state, float ahead) {
+        refs.clear();
+        values.clear();
+        refs.add(skeleton.getSkin());
+        values.add(skeleton.getX(), skeleton.getY(), skeleton.getScaleX(), skeleton.getScaleY());
+        values.add(skeleton.getColor().toFloatBits());
+
+        float delta = ahead * state.getTimeScale();
+        Array<AnimationState.TrackEntry> tracks = state.getTracks();
+        for (int i = 0; i < tracks.size; i++) {
+            for (AnimationState.TrackEntry entry = tracks.get(i); entry != null; entry = entry.getMixingFrom()) {
+                refs.add(entry.getAnimation());
+                if (entry.getDelay() > 0) {
+                    // Not applied yet
+                    values.add(-1);
+                    continue;
+                }
+                values.add(getAnimationTime(entry, entry.getTrackTime() + delta * entry.getTimeScale()));
+                values.add(entry.getAlpha(), entry.getMixBlend().ordinal());
+                if (entry.getMixingFrom() != null) {
+                    values.add(entry.getMixTime() + delta);
+                }
+            }
+            // Keeps an entry on one track from matching the same entry on the next
+            refs.add(null);
+        }
+
+        if (posed && refs.size == lastRefs.size && values.size == lastValues.size && sameRefs() && sameValues()) {
+            return false;
+        }
+        lastRefs.clear();
+        lastRefs.addAll(refs);
+        lastValues.clear();
+        lastValues.addAll(values);
+        posed = true;
+        version++;
+        return true;
+    }
+
+    // Forget the last pose, so the next one is computed and recorded again
+    public void invalidate() {
+        posed = false;
+        version++;
+    }
+
+    /**
+     * Draws the skeleton, from recorded vertices while its pose has not changed since they were recorded.
+     * The skeleton must be the one whose pose {@link #needsPose} tracks.
+     */
+    public void draw(TwoColorPolygonBatch batch, SkeletonRenderer renderer, Skeleton skeleton) {
+        // A vertex effect can move the vertices of an unchanged pose, so nothing drawn with one is recorded
+        if (renderer.getVertexEffect() != null) {
+            renderer.draw(batch, skeleton);
+            return;
+        }
+        if (recordedVersion != version) {
+            // Only a pose that is drawn a second time is worth recording
+            if (drawnVersion != version) {
+                drawnVersion = version;
+                renderer.draw(batch, skeleton);
+                return;
+            }
+            record(renderer, skeleton);
+        }
+        replay(batch);
+    }
+
+    private void record(SkeletonRenderer renderer, Skeleton skeleton) {
+        textures.clear();
+        draws.clear();
+        vertices.clear();
+        triangles.clear();
+        recordedPremultipliedAlpha = renderer.getPremultipliedAlpha();
+        record(skeleton, recordedPremultipliedAlpha);
+        recordedVersion = version;
+    }
+
+    // SkeletonRenderer.draw(TwoColorPolygonBatch, Skeleton) without a vertex effect, into the recording
+    private void record(Skeleton skeleton, boolean premultipliedAlpha) {
+        Color skeletonColor = skeleton.getColor();
+        float r = skeletonColor.r, g = skeletonColor.g, b = skeletonColor.b, a = skeletonColor.a;
+        Array<Slot> drawOrder = skeleton.getDrawOrder();
+        for (int i = 0, n = drawOrder.size; i < n; i++) {
+            Slot slot = drawOrder.get(i);
+            if (!slot.getBone().isActive()) {
+                continue;
+            }
+            // Clipping takes positions only; otherwise the colours and texture coordinates go in between
+            int vertexSize = clipper.isClipping() ? 2 : 6;
+            Attachment attachment = slot.getAttachment();
+            float[] world;
+            int worldLength;
+            short[] slotTriangles;
+            Texture texture;
+            float[] uvs;
+            Color color;
+            if (attachment instanceof RegionAttachment) {
+                RegionAttachment region = (RegionAttachment) attachment;
+                worldLength = vertexSize << 2;
+                world = scratch.setSize(worldLength);
+                region.computeWorldVertices(slot.getBone(), world, 0, vertexSize);
+                slotTriangles = QUAD_TRIANGLES;
+                texture = region.getRegion().getTexture();
+                uvs = region.getUVs();
+                color = region.getColor();
+            } else if (attachment instanceof MeshAttachment) {
+                MeshAttachment mesh = (MeshAttachment) attachment;
+                int count = mesh.getWorldVerticesLength();
+                worldLength = (count >> 1) * vertexSize;
+                world = scratch.setSize(worldLength);
+                mesh.computeWorldVertices(slot, 0, count, world, 0, vertexSize);
+                slotTriangles = mesh.getTriangles();
+                texture = mesh.getRegion().getTexture();
+                uvs = mesh.getUVs();
+                color = mesh.getColor();
+            } else if (attachment instanceof ClippingAttachment) {
+                clipper.clipStart(slot, (ClippingAttachment) attachment);
+                continue;
+            } else {
+                if (attachment instanceof SkeletonAttachment && ((SkeletonAttachment) attachment).getSkeleton() != null) {
+                    record(((SkeletonAttachment) attachment).getSkeleton(), premultipliedAlpha);
+                }
+                clipper.clipEnd(slot);
+                continue;
+            }
+
+            Color slotColor = slot.getColor();
+            float alpha = a * slotColor.a * color.a * 255;
+            float multiplier = premultipliedAlpha ? alpha : 255;
+            BlendMode blendMode = slot.getData().getBlendMode();
+            if (blendMode == BlendMode.additive && premultipliedAlpha) {
+                // Premultiplied colours add up when drawn normally with no alpha
+                blendMode = BlendMode.normal;
+                alpha = 0;
+            }
+            float red = r * color.r * multiplier;
+            float green = g * color.g * multiplier;
+            float blue = b * color.b * multiplier;
+            float light = NumberUtils.intToFloatColor(((int) alpha << 24) | ((int) (blue * slotColor.b) << 16)
+                | ((int) (green * slotColor.g) << 8) | (int) (red * slotColor.r));
+            Color darkColor = slot.getDarkColor();
+            float dark = darkColor == null ? 0 : NumberUtils.intToFloatColor(((int) (blue * darkColor.b) << 16)
+                | ((int) (green * darkColor.g) << 8) | (int) (red * darkColor.r));
+
+            int blendSrc = blendMode.getSource(premultipliedAlpha);
+            int blendDst = blendMode.getDest();
+            if (clipper.isClipping()) {
+                clipper.clipTriangles(world, worldLength, slotTriangles, slotTriangles.length, uvs, light, dark, true);
+                FloatArray clippedVertices = clipper.getClippedVertices();
+                ShortArray clippedTriangles = clipper.getClippedTriangles();
+                add(texture, blendSrc, blendDst, clippedVertices.items, clippedVertices.size,
+                    clippedTriangles.items, clippedTriangles.size);
+            } else {
+                for (int v = 2, u = 0; v < worldLength; v += 6, u += 2) {
+                    world[v] = light;
+                    world[v + 1] = dark;
+                    world[v + 2] = uvs[u];
+                    world[v + 3] = uvs[u + 1];
+                }
+                add(texture, blendSrc, blendDst, world, worldLength, slotTriangles, slotTriangles.length);
+            }
+            clipper.clipEnd(slot);
+        }
+        clipper.clipEnd();
+    }
+
+    private void add(Texture texture, int blendSrc, int blendDst, float[] drawVertices, int vertexCount,
+                     short[] drawTriangles, int triangleCount) {
+        textures.add(texture);
+        draws.add(blendSrc, blendDst, vertices.size, vertexCount);
+        draws.add(triangles.size, triangleCount);
+        vertices.addAll(drawVertices, 0, vertexCount);
+        triangles.addAll(drawTriangles, 0, triangleCount);
+    }
+
+    private void replay(TwoColorPolygonBatch batch) {
+        batch.setPremultipliedAlpha(recordedPremultipliedAlpha);
+        float[] vertexItems = vertices.items;
+        short[] triangleItems = triangles.items;
+        for (int i = 0, draw = 0; i < textures.size; i++, draw += 6) {
+            batch.setBlendFunction(draws.get(draw), draws.get(draw + 1));
+            batch.drawTwoColor(textures.get(i), vertexItems, draws.get(draw + 2), draws.get(draw + 3),
+                triangleItems, draws.get(draw + 4), draws.get(draw + 5));
+        }
+    }
+
+    private boolean sameRefs() {
+        for (int i = 0; i < refs.size; i++) {
+            if (refs.get(i) != lastRefs.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean sameValues() {
+        for (int i = 0; i < values.size; i++) {
+            if (values.get(i) != lastValues.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // TrackEntry.getAnimationTime() for the given track time
+    private static float getAnimationTime(AnimationState.TrackEntry entry, float trackTime) {
+        if (entry.getLoop()) {
+            float duration = entry.getAnimationEnd() - entry.getAnimationStart();
+            if (duration == 0) {
+                return entry.getAnimationStart();
+            }
+            return (trackTime % duration) + entry.getAnimationStart();
+        }
+        return Math.min(trackTime + entry.getAnimationStart(), entry.getAnimationEnd());
+    }
+}
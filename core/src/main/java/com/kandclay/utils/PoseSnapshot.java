@@ -0,0 +1,89 @@
+package com.kandclay.utils;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+import com.esotericsoftware.spine.Bone;
+import com.esotericsoftware.spine.Skeleton;
+import com.esotericsoftware.spine.Slot;
+import com.esotericsoftware.spine.attachments.Attachment;
+
+/**
+ * The last seen pose of a skeleton: bone world transforms, slot colours and attachments, and mesh deforms.
+ * Comparing it with the current pose tells whether anything drawn from the skeleton could look different,
+ * so work derived from the pose can be skipped while the skeleton stands still.
+ */
+public class PoseSnapshot {
+    private final FloatArray values = new FloatArray();
+    private final Array<Attachment> attachments = new Array<Attachment>();
+    private boolean captured;
+
+    /**
+     * Records the skeleton's current world pose; call after {@code updateWorldTransform()}.
+     *
+     * @return true if the pose differs from the one recorded last, or nothing was recorded yet
+     */
+    public boolean update(Skeleton skeleton) {
+        int v = 0;
+        boolean changed = !captured;
+
+        Array<Bone> bones = skeleton.getBones();
+        for (int i = 0; i < bones.size; i++) {
+            Bone bone = bones.get(i);
+            changed |= set(v++, bone.getA());
+            changed |= set(v++, bone.getB());
+            changed |= set(v++, bone.getC());
+            changed |= set(v++, bone.getD());
+            changed |= set(v++, bone.getWorldX());
+            changed |= set(v++, bone.getWorldY());
+        }
+
+        changed |= set(v++, skeleton.getColor().toFloatBits());
+        Array<Slot> slots = skeleton.getDrawOrder();
+        for (int i = 0; i < slots.size; i++) {
+            Slot slot = slots.get(i);
+            Color color = slot.getColor();
+            changed |= set(v++, color.r);
+            changed |= set(v++, color.g);
+            changed |= set(v++, color.b);
+            changed |= set(v++, color.a);
+            // Draw order changes show up as different attachments at the same position
+            if (attachments.size <= i) {
+                attachments.add(slot.getAttachment());
+                changed = true;
+            } else if (attachments.get(i) != slot.getAttachment()) {
+                attachments.set(i, slot.getAttachment());
+                changed = true;
+            }
+            FloatArray deform = slot.getDeform();
+            changed |= set(v++, deform.size);
+            for (int j = 0; j < deform.size; j++) {
+                changed |= set(v++, deform.get(j));
+            }
+        }
+
+        if (values.size != v) {
+            values.setSize(v);
+            changed = true;
+        }
+        captured = true;
+        return changed;
+    }
+
+    // Forget the recorded pose, so the next update reports a change
+    public void invalidate() {
+        captured = false;
+    }
+
+    private boolean set(int index, float value) {
+        if (index >= values.size) {
+            values.add(value);
+            return true;
+        }
+        if (values.get(index) == value) {
+            return false;
+        }
+        values.set(index, value);
+        return true;
+    }
+}
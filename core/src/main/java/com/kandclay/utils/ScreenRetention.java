@@ -0,0 +1,8 @@
+package com.kandclay.utils;
+
+public enum ScreenRetention {
+    NONE,            // Dispose a screen as soon as another one is shown
+    ALWAYS,          // Keep every screen alive until the game exits
+    LRU,             // Keep the most recently shown screens alive
+    MEMORY_PRESSURE  // Keep screens alive until the heap runs low
+}
@@ -1,8 +1,52 @@
 package com.kandclay.utils;
 
+import com.badlogic.gdx.assets.AssetDescriptor;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.esotericsoftware.spine.SkeletonData;
+import com.kandclay.managers.SkeletonDataLoader;
+
+/**
+ * The screens of the game, each with the assets it needs on top of the ones {@code Main} keeps loaded
+ * for the whole session (skin, font and trail).
+ */
 public enum ScreenType {
-    MENU,
-    MAIN,
-    STGS
-}
+    MENU(
+        texture(Constants.Background.PATH),
+        texture(Constants.Minimap.PATH),
+        atlas(Constants.MainMenuScreen.ATLAS),
+        skeleton(Constants.MainMenuScreen.ATLAS, Constants.MainMenuScreen.SKEL)
+    ),
+    MAIN(
+        texture(Constants.Background.PATH),
+        atlas(Constants.MainAnimationScreen.ATLAS),
+        skeleton(Constants.MainAnimationScreen.ATLAS, Constants.MainAnimationScreen.SKEL),
+        atlas(Constants.MainAnimationScreen.Coin.ATLAS),
+        skeleton(Constants.MainAnimationScreen.Coin.ATLAS, Constants.MainAnimationScreen.Coin.SKEL)
+    ),
+    STGS(),
+    LOADING();
+
+    private final AssetDescriptor<?>[] assets;
+
+    ScreenType(AssetDescriptor<?>... assets) {
+        this.assets = assets;
+    }
 
+    public AssetDescriptor<?>[] getAssets() {
+        return assets;
+    }
+
+    private static AssetDescriptor<Texture> texture(String path) {
+        return new AssetDescriptor<Texture>(path, Texture.class);
+    }
+
+    private static AssetDescriptor<TextureAtlas> atlas(String path) {
+        return new AssetDescriptor<TextureAtlas>(path, TextureAtlas.class);
+    }
+
+    private static AssetDescriptor<SkeletonData> skeleton(String atlasPath, String skeletonPath) {
+        return new AssetDescriptor<SkeletonData>(skeletonPath, SkeletonData.class,
+            new SkeletonDataLoader.SkeletonDataParameter(atlasPath));
+    }
+}
@@ -0,0 +1,314 @@
+package com.kandclay.utils;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IdentityMap;
+import com.esotericsoftware.spine.Animation;
+import com.esotericsoftware.spine.Bone;
+import com.esotericsoftware.spine.Skeleton;
+import com.esotericsoftware.spine.SkeletonData;
+import com.esotericsoftware.spine.Slot;
+import com.esotericsoftware.spine.attachments.Attachment;
+
+/**
+ * Poses of animations sampled ahead of time, for scrubbing. Each animation of one skeleton data is sampled
+ * at a fixed rate the first time it is asked for: bone local transforms and slot colours go into float
+ * arrays, attachments and draw order into arrays of their own. Posing a skeleton at any time then blends
+ * the two neighbouring samples, at the same cost however many timelines and keys the animation has.
+ * Bones and slots with a stepped key between two samples, or with keys closer together than the samples,
+ * jump from one sample to the other at the key instead; attachments and draw order change at samples.
+ * <p>
+ * Only animations made of bone, colour, attachment, draw order and event timelines are sampled; deform
+ * and constraint timelines are left to the animation state. The cache keeps to a memory budget by dropping
+ * the least recently used animations, and animations can be dropped by hand with {@link #evict(Animation)}.
+ */
+public class ScrubCache {
+    private static final int BONE_VALUES = 7;
+    private static final int SLOT_VALUES = 7;
+    // Stands for an animation with timelines that cannot be sampled
+    private static final Samples UNSUPPORTED = new Samples(0, 0, 0);
+
+    private final Skeleton sampler;
+    private final float sampleRate;
+    private final long maxBytes;
+    private final IdentityMap<Animation, Samples> samples = new IdentityMap<Animation, Samples>();
+    // Sampled animations from least to most recently used
+    private final Array<Animation> recent = new Array<Animation>();
+    private long bytes;
+
+    private static class Samples {
+        final int count;
+        final float[] bones;
+        final float[] slots;
+        final Attachment[] attachments;
+        final short[] drawOrder;
+        // Per interval between two samples, for the bones then the slots, where in it a stepped key falls, or 0
+        final float[] steps;
+
+        Samples(int count, int boneCount, int slotCount) {
+            this.count = count;
+            this.bones = new float[count * boneCount * BONE_VALUES];
+            this.slots = new float[count * slotCount * SLOT_VALUES];
+            this.attachments = new Attachment[count * slotCount];
+            this.drawOrder = new short[count * slotCount];
+            this.steps = new float[Math.max(count - 1, 0) * (boneCount + slotCount)];
+        }
+
+        // Arrays only, at 8 bytes a reference
+        long getBytes() {
+            return (bones.length + slots.length) * 4L + attachments.length * 8L + drawOrder.length * 2L
+                + steps.length * 4L;
+        }
+    }
+
+    public ScrubCache(SkeletonData data, float sampleRate, long maxBytes) {
+        this.sampler = new Skeleton(data);
+        this.sampleRate = sampleRate;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Samples the animation now, unless it is sampled already.
+     * @return false if the animation cannot be sampled or would not fit in the memory budget
+     */
+    public boolean prepare(Animation animation) {
+        Samples animationSamples = samples.get(animation);
+        if (animationSamples == null) {
+            animationSamples = isSupported(animation) ? sample(animation) : UNSUPPORTED;
+            if (animationSamples != UNSUPPORTED && animationSamples.getBytes() > maxBytes) {
+                animationSamples = UNSUPPORTED;
+            }
+            samples.put(animation, animationSamples);
+            if (animationSamples != UNSUPPORTED) {
+                bytes += animationSamples.getBytes();
+                recent.add(animation);
+                trim(animation);
+            }
+        }
+        return animationSamples != UNSUPPORTED;
+    }
+
+    /**
+     * Poses the skeleton's bones and slots as the animation has them at the given time, clamped to its
+     * duration. The world transform is left to the caller.
+     * @return false if the animation cannot be sampled, in which case the skeleton is untouched
+     */
+    public boolean apply(Animation animation, float time, Skeleton skeleton) {
+        if (!prepare(animation)) {
+            return false;
+        }
+        Samples animationSamples = samples.get(animation);
+        // The most recently used animation goes last
+        if (recent.peek() != animation) {
+            recent.removeValue(animation, true);
+            recent.add(animation);
+        }
+
+        float position = MathUtils.clamp(time, 0, animation.getDuration()) * sampleRate;
+        int sample = Math.min((int) position, animationSamples.count - 1);
+        int next = Math.min(sample + 1, animationSamples.count - 1);
+        float blend = position - sample;
+
+        Array<Bone> bones = skeleton.getBones();
+        Array<Slot> slots = skeleton.getSlots();
+        float[] steps = animationSamples.steps;
+        int stepOffset = sample * (bones.size + slots.size);
+        float[] boneValues = animationSamples.bones;
+        for (int i = 0, from = sample * bones.size * BONE_VALUES, to = next * bones.size * BONE_VALUES;
+             i < bones.size; i++, from += BONE_VALUES, to += BONE_VALUES) {
+            Bone bone = bones.get(i);
+            float alpha = next != sample ? getAlpha(steps[stepOffset + i], blend) : 0;
+            bone.setX(lerp(boneValues, from, to, alpha));
+            bone.setY(lerp(boneValues, from + 1, to + 1, alpha));
+            float rotation = boneValues[from + 2];
+            float turn = boneValues[to + 2] - rotation;
+            turn -= (16384 - (int) (16384.499999999996 - turn / 360)) * 360; // Shortest way round
+            bone.setRotation(rotation + turn * alpha);
+            bone.setScaleX(lerp(boneValues, from + 3, to + 3, alpha));
+            bone.setScaleY(lerp(boneValues, from + 4, to + 4, alpha));
+            bone.setShearX(lerp(boneValues, from + 5, to + 5, alpha));
+            bone.setShearY(lerp(boneValues, from + 6, to + 6, alpha));
+        }
+
+        stepOffset += bones.size;
+        float[] slotValues = animationSamples.slots;
+        int offset = sample * slots.size;
+        for (int i = 0, from = offset * SLOT_VALUES, to = next * slots.size * SLOT_VALUES;
+             i < slots.size; i++, from += SLOT_VALUES, to += SLOT_VALUES) {
+            Slot slot = slots.get(i);
+            float alpha = next != sample ? getAlpha(steps[stepOffset + i], blend) : 0;
+            slot.getColor().set(lerp(slotValues, from, to, alpha), lerp(slotValues, from + 1, to + 1, alpha),
+                lerp(slotValues, from + 2, to + 2, alpha), lerp(slotValues, from + 3, to + 3, alpha));
+            Color dark = slot.getDarkColor();
+            if (dark != null) {
+                dark.set(lerp(slotValues, from + 4, to + 4, alpha), lerp(slotValues, from + 5, to + 5, alpha),
+                    lerp(slotValues, from + 6, to + 6, alpha), 1);
+            }
+            Attachment attachment = animationSamples.attachments[offset + i];
+            // Setting the same attachment would still clear the deform
+            if (slot.getAttachment() != attachment) {
+                slot.setAttachment(attachment);
+            }
+        }
+
+        Array<Slot> drawOrder = skeleton.getDrawOrder();
+        for (int i = 0; i < drawOrder.size; i++) {
+            drawOrder.set(i, slots.get(animationSamples.drawOrder[offset + i]));
+        }
+        return true;
+    }
+
+    // Drop the samples of one animation
+    public void evict(Animation animation) {
+        Samples animationSamples = samples.remove(animation);
+        if (animationSamples != null && animationSamples != UNSUPPORTED) {
+            bytes -= animationSamples.getBytes();
+            recent.removeValue(animation, true);
+        }
+    }
+
+    public void clear() {
+        samples.clear();
+        recent.clear();
+        bytes = 0;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    // Evict the least recently used animations, other than the one just added, until the budget is met
+    private void trim(Animation keep) {
+        while (bytes > maxBytes && recent.size > 1) {
+            Animation oldest = recent.first();
+            evict(oldest == keep ? recent.get(1) : oldest);
+        }
+    }
+
+    private Samples sample(Animation animation) {
+        Array<Bone> bones = sampler.getBones();
+        Array<Slot> slots = sampler.getSlots();
+        float duration = animation.getDuration();
+        int count = (int) Math.ceil(duration * sampleRate) + 1;
+        Samples animationSamples = new Samples(count, bones.size, slots.size);
+
+        for (int sample = 0; sample < count; sample++) {
+            float time = Math.min(sample / sampleRate, duration);
+            sampler.setToSetupPose();
+            animation.apply(sampler, time, time, false, null, 1, Animation.MixBlend.setup, Animation.MixDirection.in);
+
+            for (int i = 0, index = sample * bones.size * BONE_VALUES; i < bones.size; i++, index += BONE_VALUES) {
+                Bone bone = bones.get(i);
+                float[] values = animationSamples.bones;
+                values[index] = bone.getX();
+                values[index + 1] = bone.getY();
+                values[index + 2] = bone.getRotation();
+                values[index + 3] = bone.getScaleX();
+                values[index + 4] = bone.getScaleY();
+                values[index + 5] = bone.getShearX();
+                values[index + 6] = bone.getShearY();
+            }
+
+            int offset = sample * slots.size;
+            for (int i = 0, index = offset * SLOT_VALUES; i < slots.size; i++, index += SLOT_VALUES) {
+                Slot slot = slots.get(i);
+                float[] values = animationSamples.slots;
+                Color color = slot.getColor();
+                values[index] = color.r;
+                values[index + 1] = color.g;
+                values[index + 2] = color.b;
+                values[index + 3] = color.a;
+                Color dark = slot.getDarkColor();
+                if (dark != null) {
+                    values[index + 4] = dark.r;
+                    values[index + 5] = dark.g;
+                    values[index + 6] = dark.b;
+                }
+                animationSamples.attachments[offset + i] = slot.getAttachment();
+            }
+
+            Array<Slot> drawOrder = sampler.getDrawOrder();
+            for (int i = 0; i < drawOrder.size; i++) {
+                animationSamples.drawOrder[offset + i] = (short) drawOrder.get(i).getData().getIndex();
+            }
+        }
+        markSteps(animation, animationSamples, bones.size, slots.size);
+        return animationSamples;
+    }
+
+    // Marks where each stepped key, or key too close to the one before to be sampled, falls between samples
+    private void markSteps(Animation animation, Samples animationSamples, int boneCount, int slotCount) {
+        Array<Animation.Timeline> timelines = animation.getTimelines();
+        for (int i = 0; i < timelines.size; i++) {
+            Animation.Timeline timeline = timelines.get(i);
+            float[] frames = getFrames(timeline);
+            if (frames == null) {
+                continue;
+            }
+            Animation.CurveTimeline curve = (Animation.CurveTimeline) timeline;
+            int target = timeline instanceof Animation.BoneTimeline ? ((Animation.BoneTimeline) timeline).getBoneIndex()
+                : boneCount + ((Animation.SlotTimeline) timeline).getSlotIndex();
+            int entries = frames.length / curve.getFrameCount();
+            for (int frame = 0; frame < curve.getFrameCount() - 1; frame++) {
+                float time = frames[(frame + 1) * entries];
+                if (curve.getCurveType(frame) != Animation.CurveTimeline.STEPPED) {
+                    float before = frames[frame * entries];
+                    if ((time - before) * sampleRate >= 1) {
+                        continue;
+                    }
+                    // Keys this close are a step halfway between them
+                    time = (before + time) / 2;
+                }
+                // A step on a sample is at the end of the interval before it
+                float position = time * sampleRate;
+                int interval = MathUtils.clamp((int) Math.ceil(position) - 1, 0, animationSamples.count - 2);
+                float step = MathUtils.clamp(position - interval, Float.MIN_VALUE, 1);
+                animationSamples.steps[interval * (boneCount + slotCount) + target] = step;
+            }
+        }
+    }
+
+    // The keys of the timelines that blend between them, null for the others
+    private static float[] getFrames(Animation.Timeline timeline) {
+        if (timeline instanceof Animation.RotateTimeline) {
+            return ((Animation.RotateTimeline) timeline).getFrames();
+        }
+        if (timeline instanceof Animation.TranslateTimeline) {
+            return ((Animation.TranslateTimeline) timeline).getFrames();
+        }
+        if (timeline instanceof Animation.ColorTimeline) {
+            return ((Animation.ColorTimeline) timeline).getFrames();
+        }
+        if (timeline instanceof Animation.TwoColorTimeline) {
+            return ((Animation.TwoColorTimeline) timeline).getFrames();
+        }
+        return null;
+    }
+
+    private static boolean isSupported(Animation animation) {
+        Array<Animation.Timeline> timelines = animation.getTimelines();
+        for (int i = 0; i < timelines.size; i++) {
+            Animation.Timeline timeline = timelines.get(i);
+            if (!(timeline instanceof Animation.RotateTimeline || timeline instanceof Animation.TranslateTimeline
+                || timeline instanceof Animation.ColorTimeline || timeline instanceof Animation.TwoColorTimeline
+                || timeline instanceof Animation.AttachmentTimeline || timeline instanceof Animation.DrawOrderTimeline
+                || timeline instanceof Animation.EventTimeline)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // How far to blend towards the next sample, all or nothing either side of a stepped key
+    private static float getAlpha(float step, float blend) {
+        if (step == 0) {
+            return blend;
+        }
+        return blend < step ? 0 : 1;
+    }
+
+    private static float lerp(float[] values, int from, int to, float alpha) {
+        return values[from] + (values[to] - values[from]) * alpha;
+    }
+}
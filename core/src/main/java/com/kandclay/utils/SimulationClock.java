@@ -0,0 +1,104 @@
+package com.kandclay.utils;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.FloatArray;
+import com.esotericsoftware.spine.AnimationState;
+import com.esotericsoftware.spine.Skeleton;
+
+/**
+ * Fixed-step clock for animation. Frame time is accumulated and handed out as whole ticks of
+ * {@link #getStep()} seconds, so animations advance by the same amounts whatever the frame rate. A frame
+ * runs at most a fixed number of ticks; time beyond that is dropped rather than carried over, so one slow
+ * frame cannot make the following ones slow too.
+ * <p>
+ * The time left over after the last tick is less than one step. Rendering covers it by posing skeletons
+ * that far ahead of the simulation, see {@link #applyAhead(AnimationState, Skeleton, float)}.
+ */
+public class SimulationClock {
+    private final float step;
+    private final int maxTicks;
+    private float accumulator;
+    private long droppedTicks;
+
+    // Entries and their track and mix times saved by applyAhead, only ever used by the thread posing
+    private static final Array<AnimationState.TrackEntry> savedEntries = new Array<AnimationState.TrackEntry>();
+    private static final FloatArray savedTimes = new FloatArray();
+
+    public SimulationClock(float tickRate, int maxTicks) {
+        this.step = 1f / tickRate;
+        this.maxTicks = maxTicks;
+    }
+
+    /**
+     * Adds a frame's time to the clock.
+     * @return the number of ticks to run this frame
+     */
+    public int advance(float delta) {
+        accumulator += delta;
+        int count = (int) (accumulator / step);
+        if (count > maxTicks) {
+            droppedTicks += count - maxTicks;
+            count = maxTicks;
+            accumulator = 0;
+        } else {
+            accumulator -= count * step;
+        }
+        return count;
+    }
+
+    public float getStep() {
+        return step;
+    }
+
+    // Simulated time not yet covered by a tick
+    public float getRemainder() {
+        return accumulator;
+    }
+
+    // Ticks skipped because frames took too long, for profiling
+    public long getDroppedTicks() {
+        return droppedTicks;
+    }
+
+    public void reset() {
+        accumulator = 0;
+    }
+
+    /**
+     * Poses the skeleton as the state would be the given number of seconds from now, without advancing
+     * the state itself: every playing track, and every track it mixes from, is moved ahead for the apply
+     * and moved back after it. Tracks still waiting for their delay are left alone.
+     * <p>
+     * The apply fires the events and completions up to the time it poses. Before the times are moved
+     * back, a zero update marks that time as the last one applied, the way the next tick would, so the
+     * next apply only fires what comes after it, whether or not a tick runs in between.
+     */
+    public static void applyAhead(AnimationState state, Skeleton skeleton, float seconds) {
+        float delta = Math.max(seconds, 0) * state.getTimeScale();
+        Array<AnimationState.TrackEntry> tracks = state.getTracks();
+        savedEntries.clear();
+        savedTimes.clear();
+        for (int i = 0; i < tracks.size; i++) {
+            for (AnimationState.TrackEntry entry = tracks.get(i); entry != null; entry = entry.getMixingFrom()) {
+                savedEntries.add(entry);
+                savedTimes.add(entry.getTrackTime());
+                savedTimes.add(entry.getMixTime());
+                if (entry.getDelay() <= 0) {
+                    entry.setTrackTime(entry.getTrackTime() + delta * entry.getTimeScale());
+                    entry.setMixTime(entry.getMixTime() + delta);
+                }
+            }
+        }
+
+        state.apply(skeleton);
+        state.update(0);
+
+        // The update may have ended entries, which are only put back in the pool
+        for (int i = 0, saved = 0; i < savedEntries.size; i++) {
+            AnimationState.TrackEntry entry = savedEntries.get(i);
+            entry.setTrackTime(savedTimes.get(saved++));
+            entry.setMixTime(savedTimes.get(saved++));
+        }
+        savedEntries.clear();
+    }
+}
@@ -0,0 +1,61 @@
+package com.kandclay.utils;
+
+import com.badlogic.gdx.graphics.Camera;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.viewport.Viewport;
+import com.esotericsoftware.spine.AnimationState;
+import com.esotericsoftware.spine.Skeleton;
+
+/**
+ * Decides how much work a skeleton is worth from its {@link AnimationBounds}: none while its bounds are
+ * outside the camera's frustum, a lower pose rate while it covers only a few pixels on screen, and the
+ * full rate otherwise. The animation state itself should still be updated every tick, so a skeleton that
+ * becomes visible or grows is posed at the right time straight away; events of the skipped applies are
+ * fired by the next one.
+ */
+public class SkeletonLod {
+
+    public enum Level {
+        CULLED, REDUCED, FULL
+    }
+
+    private final Rectangle bounds = new Rectangle();
+    private final float minFullRatePixels = Constants.Culling.MIN_FULL_RATE_PIXELS;
+    private final float reducedInterval = 1f / Constants.Culling.REDUCED_POSE_RATE;
+
+    public Level getLevel(Viewport viewport, Skeleton skeleton, AnimationState state, AnimationBounds table) {
+        return getLevel(viewport, table.getWorldBounds(skeleton, state, bounds));
+    }
+
+    // Whether the skeleton can be on screen, whatever it plays
+    public boolean isVisible(Viewport viewport, Skeleton skeleton, AnimationBounds table) {
+        return getLevel(viewport, table.getWorldBounds(skeleton, bounds)) != Level.CULLED;
+    }
+
+    public Level getLevel(Viewport viewport, Rectangle bounds) {
+        Camera camera = viewport.getCamera();
+        float halfWidth = bounds.width / 2;
+        float halfHeight = bounds.height / 2;
+        if (!camera.frustum.boundsInFrustum(bounds.x + halfWidth, bounds.y + halfHeight, 0, halfWidth, halfHeight, 0)) {
+            return Level.CULLED;
+        }
+        float zoom = camera instanceof OrthographicCamera ? ((OrthographicCamera) camera).zoom : 1;
+        float pixelsPerUnit = viewport.getScreenHeight() / (camera.viewportHeight * zoom);
+        return Math.max(bounds.width, bounds.height) * pixelsPerUnit < minFullRatePixels ? Level.REDUCED : Level.FULL;
+    }
+
+    /**
+     * Whether a skeleton at the given level, last posed the given number of seconds ago, is to be posed now.
+     */
+    public boolean shouldPose(Level level, float sincePose) {
+        switch (level) {
+            case FULL:
+                return true;
+            case REDUCED:
+                return sincePose >= reducedInterval;
+            default:
+                return false;
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.kandclay.utils;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.BooleanArray;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.viewport.Viewport;
+import com.esotericsoftware.spine.AnimationState;
+import com.esotericsoftware.spine.Skeleton;
+import com.esotericsoftware.spine.SkeletonRenderer;
+import com.kandclay.handlers.SkeletonUpdater;
+
+/**
+ * The mouse trail of one viewport. A trail is owned by the screen that created it, so its dots are only
+ * ever updated and drawn with that viewport and go away with the screen. The number of live dots is
+ * capped, evicting the oldest first, and a new dot is only emitted once the pointer has moved far enough
+ * from the previous one. Spine dots outside the viewport's camera are neither posed nor drawn, and dots
+ * that are only a few pixels wide are posed at a lower rate, see {@link SkeletonLod}.
+ */
+public class Trail {
+    private final Viewport viewport;
+    // The spine dots in a ring of maxDots slots, oldest at the head, like TrailParticles' baked ones
+    private final Array<TrailDot> spineDots;
+    // The skeletons and states of the spine dots, in the same slots, for batch updates
+    private final Array<Skeleton> dotSkeletons;
+    private final Array<AnimationState> dotStates;
+    // Per spine dot: whether it can be on screen, whether it is posed this tick and the time since it was
+    private final BooleanArray dotVisible;
+    private final BooleanArray dotPosed;
+    private final FloatArray dotSincePose;
+    private int head;
+    private int count;
+    private final SkeletonLod lod;
+    private TrailParticles particles;
+    private int maxDots;
+    private float minDistance;
+    private float scale = 1;
+    private float lastX, lastY;
+    private boolean hasLast;
+
+    public Trail(Viewport viewport) {
+        this(viewport, Constants.TrailDot.MAX_DOTS, Constants.TrailDot.MIN_EMIT_DISTANCE);
+    }
+
+    public Trail(Viewport viewport, int maxDots, float minDistance) {
+        this.viewport = viewport;
+        this.spineDots = new Array<TrailDot>();
+        this.dotSkeletons = new Array<Skeleton>();
+        this.dotStates = new Array<AnimationState>();
+        this.dotVisible = new BooleanArray();
+        this.dotPosed = new BooleanArray();
+        this.dotSincePose = new FloatArray();
+        this.lod = new SkeletonLod();
+        this.maxDots = maxDots;
+        this.minDistance = minDistance;
+        setSlots(maxDots);
+    }
+
+    /**
+     * Emits a dot at the given world position, unless the pointer is outside the viewport or has not moved
+     * far enough since the last dot.
+     */
+    public void emit(float x, float y) {
+        emit(Gdx.input.getX(), Gdx.input.getY(), x, y);
+    }
+
+    /**
+     * Emits a dot at the given world position for a pointer that was at the given screen position, with the
+     * origin at the top left.
+     */
+    public void emit(int screenX, int screenY, float x, float y) {
+        screenY = Gdx.graphics.getHeight() - screenY; // Flip Y-coordinate
+
+        if (screenX < viewport.getScreenX() || screenX > viewport.getScreenX() + viewport.getScreenWidth()
+            || screenY < viewport.getScreenY() || screenY > viewport.getScreenY() + viewport.getScreenHeight()) {
+            return;
+        }
+
+        if (hasLast) {
+            float dx = x - lastX;
+            float dy = y - lastY;
+            float distance = minDistance * scale;
+            if (dx * dx + dy * dy < distance * distance) {
+                return;
+            }
+        }
+        lastX = x;
+        lastY = y;
+        hasLast = true;
+
+        float scale = MathUtils.random(Constants.TrailDot.MIN_SCALE, Constants.TrailDot.MAX_SCALE) * this.scale;
+        float rotation = MathUtils.random(Constants.TrailDot.MIN_ROTATION, Constants.TrailDot.MAX_ROTATION);
+        int colorIndex = TrailDot.nextColorIndex();
+
+        if (TrailDot.getMode() == TrailMode.BAKED) {
+            getParticles().emit(x, y, scale, rotation, colorIndex);
+            return;
+        }
+
+        if (count == maxDots) {
+            removeOldest();
+        }
+        TrailDot trailDot = TrailDot.obtain(x, y, scale, rotation, colorIndex);
+        int slot = (head + count) % maxDots;
+        count++;
+        spineDots.set(slot, trailDot);
+        dotSkeletons.set(slot, trailDot.skeleton);
+        dotStates.set(slot, trailDot.state);
+        // Not drawn before its first update, which poses it unless it is culled
+        dotVisible.set(slot, false);
+        dotPosed.set(slot, false);
+        dotSincePose.set(slot, Float.POSITIVE_INFINITY);
+    }
+
+    public void update(float delta) {
+        // Dots left over from a mode switch keep playing until they finish
+        if (particles != null) {
+            particles.update(delta);
+        }
+        AnimationBounds bounds = TrailDot.getBounds();
+        for (int i = 0, slot = head; i < count; i++, slot = (slot + 1) % maxDots) {
+            SkeletonLod.Level level = lod.getLevel(viewport, dotSkeletons.get(slot), dotStates.get(slot), bounds);
+            float sincePose = dotSincePose.get(slot) + delta;
+            boolean pose = lod.shouldPose(level, sincePose);
+            dotVisible.set(slot, level != SkeletonLod.Level.CULLED);
+            dotPosed.set(slot, pose);
+            dotSincePose.set(slot, pose ? 0 : sincePose);
+        }
+        // A full trail is a thousand skeletons, updated in parallel batches, in two runs when the ring wraps
+        int end = head + count;
+        SkeletonUpdater.updateAll(dotSkeletons, dotStates, delta, dotPosed, head, Math.min(end, maxDots));
+        if (end > maxDots) {
+            SkeletonUpdater.updateAll(dotSkeletons, dotStates, delta, dotPosed, 0, end - maxDots);
+        }
+        // Every dot plays the same animation, so they finish in the order they were emitted
+        while (count > 0 && spineDots.get(head).isFinished()) {
+            removeOldest();
+        }
+    }
+
+    // The batch must be drawing with the trail's viewport
+    public void draw(Batch batch) {
+        if (particles != null) {
+            particles.draw(batch);
+        }
+        SkeletonRenderer renderer = TrailDot.getRenderer();
+        for (int i = 0, slot = head; i < count; i++, slot = (slot + 1) % maxDots) {
+            if (dotVisible.get(slot)) {
+                renderer.draw(batch, dotSkeletons.get(slot));
+            }
+        }
+    }
+
+    // Drop every live dot; the trail can keep emitting afterwards
+    public void clear() {
+        if (particles != null) {
+            particles.clear();
+        }
+        while (count > 0) {
+            removeOldest();
+        }
+        head = 0;
+        hasLast = false;
+    }
+
+    public int size() {
+        return count + (particles != null ? particles.size() : 0);
+    }
+
+    public Viewport getViewport() {
+        return viewport;
+    }
+
+    public int getMaxDots() {
+        return maxDots;
+    }
+
+    /**
+     * Changes the dot cap. Baked dots emitted before the change are dropped.
+     */
+    public void setMaxDots(int maxDots) {
+        particles = null;
+        while (count > maxDots) {
+            removeOldest();
+        }
+        // The live dots move to the first slots of a ring of the new size, in the same order
+        TrailDot[] dots = new TrailDot[count];
+        for (int i = 0; i < count; i++) {
+            dots[i] = spineDots.get((head + i) % this.maxDots);
+        }
+        this.maxDots = maxDots;
+        setSlots(maxDots);
+        head = 0;
+        for (int i = 0; i < dots.length; i++) {
+            spineDots.set(i, dots[i]);
+            dotSkeletons.set(i, dots[i].skeleton);
+            dotStates.set(i, dots[i].state);
+            dotVisible.set(i, false);
+            dotPosed.set(i, false);
+            dotSincePose.set(i, Float.POSITIVE_INFINITY);
+        }
+    }
+
+    public void setMinDistance(float minDistance) {
+        this.minDistance = minDistance;
+    }
+
+    /**
+     * Multiplies the size of new dots and the distance between them, for a viewport whose world units show
+     * smaller on screen than the ones the dot constants were chosen for.
+     */
+    public void setScale(float scale) {
+        this.scale = scale;
+    }
+
+    // Frees the dot at the head, leaving its slot empty for the ring to reuse
+    private void removeOldest() {
+        TrailDot.free(spineDots.get(head));
+        spineDots.set(head, null);
+        dotSkeletons.set(head, null);
+        dotStates.set(head, null);
+        head = (head + 1) % maxDots;
+        count--;
+    }
+
+    // Sizes the slot arrays to the given number of empty slots
+    private void setSlots(int slots) {
+        spineDots.clear();
+        spineDots.setSize(slots);
+        dotSkeletons.clear();
+        dotSkeletons.setSize(slots);
+        dotStates.clear();
+        dotStates.setSize(slots);
+        dotVisible.clear();
+        dotVisible.setSize(slots);
+        dotPosed.clear();
+        dotPosed.setSize(slots);
+        dotSincePose.clear();
+        dotSincePose.setSize(slots);
+    }
+
+    private TrailParticles getParticles() {
+        if (particles == null) {
+            particles = new TrailParticles(TrailDot.getBakedAnimation(), TrailDot.getPalette(), maxDots);
+        }
+        return particles;
+    }
+}
@@ -1,105 +1,130 @@
 package com.kandclay.utils;
 
-import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
-import com.badlogic.gdx.math.MathUtils;
-import com.badlogic.gdx.math.Rectangle;
-import com.badlogic.gdx.utils.SnapshotArray;
-import com.badlogic.gdx.utils.viewport.Viewport;
+import com.badlogic.gdx.utils.Pool;
+import com.esotericsoftware.spine.Animation;
 import com.esotericsoftware.spine.AnimationState;
 import com.esotericsoftware.spine.Skeleton;
 import com.esotericsoftware.spine.SkeletonRenderer;
 import com.kandclay.handlers.SpineAnimationHandler;
 
-import java.util.Iterator;
-
-public class TrailDot {
-    public Skeleton skeleton;
-    public AnimationState state;
-    public SkeletonRenderer renderer;
+/**
+ * A single dot of the mouse trail, plus the resources shared by every {@link Trail}. In
+ * {@link TrailMode#SPINE} mode every dot is a pooled skeleton with its own animation state; dots are
+ * recycled, so once the pool is warm emitting and rendering does not allocate. In {@link TrailMode#BAKED}
+ * mode the dot animation is sampled once and drawn by {@link TrailParticles}, with no Spine work per dot.
+ */
+public class TrailDot implements Pool.Poolable {
+    public final Skeleton skeleton;
+    public final AnimationState state;
     public static SpineAnimationHandler spineAnimationHandler;
-    private static final SnapshotArray<TrailDot> trailDots = new SnapshotArray<TrailDot>();
+    private static final Pool<TrailDot> pool = new Pool<TrailDot>() {
+        @Override
+        protected TrailDot newObject() {
+            return new TrailDot();
+        }
+
+        @Override
+        protected void discard(TrailDot trailDot) {
+            spineAnimationHandler.releaseSkeleton(trailDot.skeleton);
+        }
+    };
+    private static SkeletonRenderer renderer;
+    private static Color[] palette;
+    private static Animation animation;
+    private static AnimationBounds bounds;
+    private static BakedRegionAnimation bakedAnimation;
+    private static TrailMode mode = TrailMode.BAKED;
     private static int trailDotCount = 0;
-    public float x, y;
-    public Viewport viewport;
-
-    private TrailDot(Skeleton skeleton, AnimationState state, SkeletonRenderer renderer, float x, float y, Viewport viewport) {
-        this.skeleton = skeleton;
-        this.state = state;
-        this.renderer = renderer;
-        this.x = x;
-        this.y = y;
-        this.viewport = viewport;
+
+    private TrailDot() {
+        this.skeleton = spineAnimationHandler.createSkeleton(Constants.TrailDot.ATLAS, Constants.TrailDot.SKEL);
+        this.state = spineAnimationHandler.createAnimationState(skeleton);
+        if (animation == null) {
+            animation = skeleton.getData().findAnimation("animation");
+            bounds = spineAnimationHandler.getSkeletonDataCache().getAnimationBounds(skeleton.getData());
+        }
     }
 
     public static void setSpineAnimationHandler(SpineAnimationHandler handler) {
         spineAnimationHandler = handler;
     }
 
-    public static void createTrailDot(float x, float y, Viewport viewport) {
-        Rectangle screenBounds = new Rectangle(
-            viewport.getScreenX(),
-            viewport.getScreenY(),
-            viewport.getScreenWidth(),
-            viewport.getScreenHeight()
-        );
+    public static void setMode(TrailMode trailMode) {
+        mode = trailMode;
+    }
 
-        int screenY = Gdx.graphics.getHeight() - Gdx.input.getY(); // Flip Y-coordinate
+    public static TrailMode getMode() {
+        return mode;
+    }
 
-        if (!screenBounds.contains(Gdx.input.getX(), screenY)) {
-            return;
-        }
+    static TrailDot obtain(float x, float y, float scale, float rotation, int colorIndex) {
+        TrailDot trailDot = pool.obtain();
+        trailDot.skeleton.setPosition(x, y);
+        trailDot.skeleton.setColor(getPalette()[colorIndex]);
+        trailDot.skeleton.setScale(scale, scale);
+        trailDot.skeleton.getRootBone().setRotation(rotation);
+        trailDot.state.setAnimation(0, animation, false);
+        return trailDot;
+    }
 
-        float hue = (trailDotCount % Constants.TrailDot.NUMBER_OF_COLORS);
+    static void free(TrailDot trailDot) {
+        pool.free(trailDot);
+    }
 
-        Color currentColor = new Color();
-        currentColor.fromHsv(hue, Constants.TrailDot.SATURATION, Constants.TrailDot.VALUE);
-        currentColor.a = Constants.TrailDot.ALPHA;
+    // True once the dot animation has played; the dot's trail advances and poses it
+    boolean isFinished() {
+        return state.getCurrent(0) == null || state.getCurrent(0).isComplete();
+    }
 
-        String trailAtlasPath = Constants.TrailDot.ATLAS;
-        String trailSkeletonPath = Constants.TrailDot.JSON;
+    // Release the pooled skeletons; live dots must have been freed by their trails
+    public static void clear() {
+        pool.clear();
+    }
 
-        Skeleton trailSkeleton = spineAnimationHandler.createSkeleton(trailAtlasPath, trailSkeletonPath);
-        AnimationState trailState = spineAnimationHandler.createAnimationState(trailSkeleton);
-        SkeletonRenderer trailRenderer = new SkeletonRenderer();
-        trailRenderer.setPremultipliedAlpha(true);
+    @Override
+    public void reset() {
+        state.clearTracks();
+        skeleton.setToSetupPose();
+    }
 
-        float randomScale = MathUtils.random(Constants.TrailDot.MIN_SCALE, Constants.TrailDot.MAX_SCALE);
-        float randomRotation = MathUtils.random(Constants.TrailDot.MIN_ROTATION, Constants.TrailDot.MAX_ROTATION);
+    static int nextColorIndex() {
+        return trailDotCount++ % Constants.TrailDot.NUMBER_OF_COLORS;
+    }
 
-        trailSkeleton.setPosition(x, y);
-        trailSkeleton.setColor(currentColor);
-        trailSkeleton.setScale(randomScale, randomScale);
-        trailSkeleton.getRootBone().setRotation(randomRotation);
+    // Bounds of the dot skeleton, for culling; set once the first dot is created
+    static AnimationBounds getBounds() {
+        return bounds;
+    }
 
-        trailState.setAnimation(0, "animation", false);
+    static SkeletonRenderer getRenderer() {
+        if (renderer == null) {
+            renderer = new SkeletonRenderer();
+            renderer.setPremultipliedAlpha(true);
+        }
+        return renderer;
+    }
 
-        trailDots.add(new TrailDot(trailSkeleton, trailState, trailRenderer, x, y, viewport));
-        trailDotCount++;
+    // Sample the dot animation once from a temporary skeleton; the skeleton data stays cached
+    static BakedRegionAnimation getBakedAnimation() {
+        if (bakedAnimation == null) {
+            Skeleton skeleton = spineAnimationHandler.createSkeleton(Constants.TrailDot.ATLAS, Constants.TrailDot.SKEL);
+            bakedAnimation = new BakedRegionAnimation(skeleton, skeleton.getData().findAnimation("animation"),
+                Constants.TrailDot.SLOT, Constants.TrailDot.BAKE_FPS);
+            spineAnimationHandler.releaseSkeleton(skeleton);
+        }
+        return bakedAnimation;
     }
 
-    public static void renderTrail(float delta, SpriteBatch batch, Viewport viewport) {
-        viewport.apply();
-        batch.setProjectionMatrix(viewport.getCamera().combined);
-        batch.begin();
-
-        Iterator<TrailDot> iterator = trailDots.iterator();
-        while (iterator.hasNext()) {
-            TrailDot trailDot = iterator.next();
-            if (trailDot.viewport == viewport) {
-                trailDot.state.update(delta);
-                trailDot.state.apply(trailDot.skeleton);
-                trailDot.skeleton.updateWorldTransform();
-                trailDot.skeleton.setPosition(trailDot.x, trailDot.y);
-
-                trailDot.renderer.draw(batch, trailDot.skeleton);
-
-                if (trailDot.state.getCurrent(0) == null || trailDot.state.getCurrent(0).isComplete()) {
-                    iterator.remove();
-                }
+    // The hue cycle is the same for every dot, so it is computed once
+    static Color[] getPalette() {
+        if (palette == null) {
+            palette = new Color[Constants.TrailDot.NUMBER_OF_COLORS];
+            for (int hue = 0; hue < palette.length; hue++) {
+                palette[hue] = new Color().fromHsv(hue, Constants.TrailDot.SATURATION, Constants.TrailDot.VALUE);
+                palette[hue].a = Constants.TrailDot.ALPHA;
             }
         }
-        batch.end();
+        return palette;
     }
 }
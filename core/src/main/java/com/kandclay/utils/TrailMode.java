@@ -0,0 +1,12 @@
+package com.kandclay.utils;
+
+public enum TrailMode {
+    BAKED,
+    SPINE;
+
+    private static final TrailMode[] vals = values();
+
+    public TrailMode next() {
+        return vals[(this.ordinal() + 1) % vals.length];
+    }
+}
@@ -0,0 +1,134 @@
+package com.kandclay.utils;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.NumberUtils;
+
+/**
+ * Trail dots stored as parallel primitive arrays in a fixed-capacity ring buffer. Every dot plays the same
+ * {@link BakedRegionAnimation}, so a dot only needs its position, scale, rotation, tint and start time.
+ * Dots are emitted in time order, which means the oldest dot is always at the head of the ring and
+ * expiring dots is a matter of advancing the head. When the ring is full the oldest dot is overwritten.
+ */
+public class TrailParticles {
+    private static final int VERTEX_SIZE = 5;
+
+    private final BakedRegionAnimation animation;
+    private final int capacity;
+    private final float[] x;
+    private final float[] y;
+    private final float[] scale;
+    private final float[] cos;
+    private final float[] sin;
+    private final float[] startTime;
+    private final int[] tint;
+    private final Color[] palette;
+    private final float[] vertices = new float[4 * VERTEX_SIZE];
+
+    private int head;
+    private int count;
+    private float time;
+
+    public TrailParticles(BakedRegionAnimation animation, Color[] palette, int capacity) {
+        this.animation = animation;
+        this.palette = palette;
+        this.capacity = capacity;
+        this.x = new float[capacity];
+        this.y = new float[capacity];
+        this.scale = new float[capacity];
+        this.cos = new float[capacity];
+        this.sin = new float[capacity];
+        this.startTime = new float[capacity];
+        this.tint = new int[capacity];
+
+        float[] uvs = animation.getUVs();
+        for (int corner = 0; corner < 4; corner++) {
+            vertices[corner * VERTEX_SIZE + 3] = uvs[corner * 2];
+            vertices[corner * VERTEX_SIZE + 4] = uvs[corner * 2 + 1];
+        }
+    }
+
+    public void emit(float x, float y, float scale, float rotationDegrees, int paletteIndex) {
+        int index;
+        if (count == capacity) {
+            index = head;
+            head = (head + 1) % capacity;
+        } else {
+            index = (head + count) % capacity;
+            count++;
+        }
+        this.x[index] = x;
+        this.y[index] = y;
+        this.scale[index] = scale;
+        this.cos[index] = MathUtils.cosDeg(rotationDegrees);
+        this.sin[index] = MathUtils.sinDeg(rotationDegrees);
+        this.startTime[index] = time;
+        this.tint[index] = paletteIndex;
+    }
+
+    // Advance the clock and drop the dots whose animation has finished
+    public void update(float delta) {
+        time += delta;
+        float duration = animation.getDuration();
+        while (count > 0 && time - startTime[head] >= duration) {
+            head = (head + 1) % capacity;
+            count--;
+        }
+        // Restart the clock whenever the trail is empty so it never loses float precision
+        if (count == 0) {
+            time = 0;
+        }
+    }
+
+    public void draw(Batch batch) {
+        if (count == 0) return;
+
+        float[] quads = animation.getQuads();
+        float[] colors = animation.getColors();
+        batch.setBlendFunction(animation.getBlendSource(), animation.getBlendDest());
+
+        for (int i = 0, index = head; i < count; i++, index = (index + 1) % capacity) {
+            int frame = animation.getFrame(time - startTime[index]);
+            int quad = frame * BakedRegionAnimation.QUAD_SIZE;
+            int color = frame * BakedRegionAnimation.COLOR_SIZE;
+
+            // Premultiplied alpha, matching SkeletonRenderer
+            Color dotTint = palette[tint[index]];
+            float alpha = dotTint.a * colors[color + 3] * 255;
+            int r = (int) (dotTint.r * colors[color] * alpha);
+            int g = (int) (dotTint.g * colors[color + 1] * alpha);
+            int b = (int) (dotTint.b * colors[color + 2] * alpha);
+            float packedColor = NumberUtils.intToFloatColor(((int) alpha << 24) | (b << 16) | (g << 8) | r);
+
+            float dotScale = scale[index];
+            float dotCos = cos[index] * dotScale;
+            float dotSin = sin[index] * dotScale;
+            float dotX = x[index];
+            float dotY = y[index];
+            for (int corner = 0; corner < 4; corner++) {
+                float localX = quads[quad + corner * 2];
+                float localY = quads[quad + corner * 2 + 1];
+                int vertex = corner * VERTEX_SIZE;
+                vertices[vertex] = dotX + dotCos * localX - dotSin * localY;
+                vertices[vertex + 1] = dotY + dotSin * localX + dotCos * localY;
+                vertices[vertex + 2] = packedColor;
+            }
+            batch.draw(animation.getTexture(), vertices, 0, vertices.length);
+        }
+    }
+
+    public void clear() {
+        head = 0;
+        count = 0;
+        time = 0;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+}
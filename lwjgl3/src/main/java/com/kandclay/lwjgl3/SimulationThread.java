@@ -0,0 +1,79 @@
+package com.kandclay.lwjgl3;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.kandclay.managers.ScreenManager;
+import com.kandclay.managers.SimulationDriver;
+import com.kandclay.utils.Constants;
+
+/**
+ * Simulates the Spine animations on a thread of its own, so posing skeletons overlaps with drawing on
+ * multicore desktops. Enabled with {@code -Dsimulation.thread=true}, see the {@code runThreadedSimulation}
+ * task.
+ */
+public class SimulationThread implements SimulationDriver, Runnable {
+    private static final String PROPERTY = "simulation.thread";
+
+    private ScreenManager screenManager;
+    private Thread thread;
+    private volatile boolean running;
+
+    public static boolean isEnabled() {
+        return "true".equals(System.getProperty(PROPERTY));
+    }
+
+    @Override
+    public void start(ScreenManager screenManager) {
+        this.screenManager = screenManager;
+        running = true;
+        thread = new Thread(this, "Simulation");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void run() {
+        long stepNanos = (long) (1_000_000_000L / Constants.Simulation.TICK_RATE);
+        long last = System.nanoTime();
+        while (running) {
+            long now = System.nanoTime();
+            try {
+                screenManager.simulate((now - last) / 1_000_000_000f);
+            } catch (final Throwable t) {
+                running = false;
+                // Fail on the render thread, like any other error in the game
+                Gdx.app.postRunnable(new Runnable() {
+                    @Override
+                    public void run() {
+                        throw new GdxRuntimeException("Simulation thread failed", t);
+                    }
+                });
+                return;
+            }
+            last = now;
+
+            long sleep = stepNanos - (System.nanoTime() - now);
+            if (sleep > 0) {
+                try {
+                    Thread.sleep(sleep / 1_000_000L, (int) (sleep % 1_000_000L));
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            thread = null;
+        }
+    }
+}